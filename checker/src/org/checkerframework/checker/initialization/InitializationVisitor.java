@@ -269,6 +269,11 @@ public class InitializationVisitor<
 
     @Override
     public Void visitClass(ClassTree node, Void p) {
+        if (checker.shouldSkipDefs(node)) {
+            // The class is not checked, and the factory does not analyze it.
+            return super.visitClass(node, p);
+        }
+
         // call the ATF with any node from this class to trigger the org.checkerframework.dataflow
         // analysis.
         atypeFactory.preProcessClassTree(node);
@@ -10,6 +10,7 @@ import com.sun.source.tree.MethodTree;
 import com.sun.source.tree.Tree;
 import com.sun.source.tree.VariableTree;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
@@ -17,7 +18,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
-import java.util.PriorityQueue;
 import java.util.Set;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.element.Element;
@@ -67,6 +67,15 @@ public class Analysis<
     /** Instance of the types utility. */
     protected final Types types;
 
+    /** The number of blocks analyzed by the last run of the analysis. */
+    protected int blockVisitCount;
+
+    /** The number of block inputs copied by the last run of the analysis. */
+    protected int storeCopyCount;
+
+    /** The number of store merges performed by the last run of the analysis. */
+    protected int storeMergeCount;
+
     /** Then stores before every basic block (assumed to be 'no information' if not present). */
     protected IdentityHashMap<Block, S> thenStores;
 
@@ -109,6 +118,12 @@ public class Analysis<
     /** The current transfer input when the analysis is running. */
     protected TransferInput<A, S> currentInput;
 
+    /**
+     * The block that is currently analyzed, whose stores are propagated to its successors (if the
+     * analysis is running).
+     */
+    protected Block currentBlock;
+
     public Tree getCurrentTree() {
         return currentTree;
     }
@@ -151,6 +166,21 @@ public class Analysis<
         return env;
     }
 
+    /** @return the number of blocks analyzed by the last run of the analysis */
+    public int getBlockVisitCount() {
+        return blockVisitCount;
+    }
+
+    /** @return the number of block inputs copied by the last run of the analysis */
+    public int getStoreCopyCount() {
+        return storeCopyCount;
+    }
+
+    /** @return the number of store merges performed by the last run of the analysis */
+    public int getStoreMergeCount() {
+        return storeMergeCount;
+    }
+
     /**
      * Perform the actual analysis. Should only be called once after the object has been created.
      */
@@ -162,6 +192,8 @@ public class Analysis<
 
         while (!worklist.isEmpty()) {
             Block b = worklist.poll();
+            currentBlock = b;
+            blockVisitCount++;
 
             switch (b.getType()) {
                 case REGULAR_BLOCK:
@@ -171,6 +203,7 @@ public class Analysis<
                         // apply transfer function to contents
                         TransferInput<A, S> inputBefore = getInputBefore(rb);
                         currentInput = inputBefore.copy();
+                        storeCopyCount++;
                         TransferResult<A, S> transferResult = null;
                         Node lastNode = null;
                         boolean addToWorklistAgain = false;
@@ -198,6 +231,7 @@ public class Analysis<
                         // apply transfer function to content
                         TransferInput<A, S> inputBefore = getInputBefore(eb);
                         currentInput = inputBefore.copy();
+                        storeCopyCount++;
                         Node node = eb.getNode();
                         TransferResult<A, S> transferResult =
                                 callTransferFunction(node, currentInput);
@@ -229,6 +263,7 @@ public class Analysis<
                                 }
                             } else {
                                 for (Block exceptionSucc : e.getValue()) {
+                                    storeCopyCount++;
                                     addStoreBefore(
                                             exceptionSucc,
                                             node,
@@ -248,6 +283,7 @@ public class Analysis<
                         // get store before
                         TransferInput<A, S> inputBefore = getInputBefore(cb);
                         TransferInput<A, S> input = inputBefore.copy();
+                        storeCopyCount++;
 
                         // propagate store to successor
                         Block thenSucc = cb.getThenSuccessor();
@@ -276,6 +312,7 @@ public class Analysis<
                     break;
             }
         }
+        currentBlock = null;
 
         assert isRunning == true;
         isRunning = false;
@@ -411,6 +448,9 @@ public class Analysis<
         worklist = new Worklist(cfg);
         nodeValues = new IdentityHashMap<>();
         finalLocalValues = new HashMap<>();
+        blockVisitCount = 0;
+        storeCopyCount = 0;
+        storeMergeCount = 0;
         worklist.add(cfg.getEntryBlock());
 
         List<LocalVariableNode> parameters = null;
@@ -448,12 +488,26 @@ public class Analysis<
      * Add a basic block to the worklist. If {@code b} is already present, the method does nothing.
      */
     protected void addToWorklist(Block b) {
-        // TODO: use a more efficient way to check if b is already present
         if (!worklist.contains(b)) {
             worklist.add(b);
         }
     }
 
+    /**
+     * Merge a store that flows into the basic block {@code b} with the store that is already
+     * recorded before {@code b}. Subclasses may override this method to compute a wider upper
+     * bound, for example to speed up convergence at loop heads.
+     *
+     * @param newStore the store that flows into {@code b}
+     * @param previousStore the store recorded before {@code b}
+     * @param b the block
+     * @return an upper bound of the two stores
+     */
+    protected S mergeStores(S newStore, S previousStore, Block b) {
+        storeMergeCount++;
+        return previousStore.leastUpperBound(newStore);
+    }
+
     /**
      * Add a store before the basic block {@code b} by merging with the existing stores for that
      * location.
@@ -467,7 +521,7 @@ public class Analysis<
             case THEN:
                 {
                     // Update the then store
-                    S newThenStore = (thenStore != null) ? thenStore.leastUpperBound(s) : s;
+                    S newThenStore = (thenStore != null) ? mergeStores(s, thenStore, b) : s;
                     if (!newThenStore.equals(thenStore)) {
                         thenStores.put(b, newThenStore);
                         if (elseStore != null) {
@@ -480,7 +534,7 @@ public class Analysis<
             case ELSE:
                 {
                     // Update the else store
-                    S newElseStore = (elseStore != null) ? elseStore.leastUpperBound(s) : s;
+                    S newElseStore = (elseStore != null) ? mergeStores(s, elseStore, b) : s;
                     if (!newElseStore.equals(elseStore)) {
                         elseStores.put(b, newElseStore);
                         if (thenStore != null) {
@@ -493,7 +547,7 @@ public class Analysis<
             case BOTH:
                 if (thenStore == elseStore) {
                     // Currently there is only one regular store
-                    S newStore = (thenStore != null) ? thenStore.leastUpperBound(s) : s;
+                    S newStore = (thenStore != null) ? mergeStores(s, thenStore, b) : s;
                     if (!newStore.equals(thenStore)) {
                         thenStores.put(b, newStore);
                         elseStores.put(b, newStore);
@@ -503,13 +557,13 @@ public class Analysis<
                 } else {
                     boolean storeChanged = false;
 
-                    S newThenStore = (thenStore != null) ? thenStore.leastUpperBound(s) : s;
+                    S newThenStore = (thenStore != null) ? mergeStores(s, thenStore, b) : s;
                     if (!newThenStore.equals(thenStore)) {
                         thenStores.put(b, newThenStore);
                         storeChanged = true;
                     }
 
-                    S newElseStore = (elseStore != null) ? elseStore.leastUpperBound(s) : s;
+                    S newElseStore = (elseStore != null) ? mergeStores(s, elseStore, b) : s;
                     if (!newElseStore.equals(elseStore)) {
                         elseStores.put(b, newElseStore);
                         storeChanged = true;
@@ -530,13 +584,21 @@ public class Analysis<
     /**
      * A worklist is a priority queue of blocks in which the order is given by depth-first ordering
      * to place non-loop predecessors ahead of successors.
+     *
+     * <p>The worklist is represented as a bit set indexed by the depth-first order of the blocks,
+     * so that adding, polling and membership tests do not need to search or reorder a queue.
      */
     protected static class Worklist {
 
         /** Map all blocks in the CFG to their depth-first order. */
         protected IdentityHashMap<Block, Integer> depthFirstOrder;
 
-        /** Comparator to allow priority queue to order blocks by their depth-first order. */
+        /**
+         * Comparator to allow priority queue to order blocks by their depth-first order.
+         *
+         * @deprecated the worklist no longer uses a priority queue
+         */
+        @Deprecated
         public class DFOComparator implements Comparator<Block> {
             @Override
             public int compare(Block b1, Block b2) {
@@ -544,38 +606,57 @@ public class Analysis<
             }
         }
 
-        /** The backing priority queue. */
-        protected PriorityQueue<Block> queue;
+        /**
+         * The blocks of the CFG, indexed by their depth-first order. The order starts at 1, so the
+         * first element is null.
+         */
+        protected Block[] blocksInOrder;
+
+        /** The depth-first orders of the blocks currently in the worklist. */
+        protected BitSet queued;
 
         public Worklist(ControlFlowGraph cfg) {
+            List<Block> blocks = cfg.getDepthFirstOrderedBlocks();
             depthFirstOrder = new IdentityHashMap<>();
+            blocksInOrder = new Block[blocks.size() + 1];
             int count = 1;
-            for (Block b : cfg.getDepthFirstOrderedBlocks()) {
-                depthFirstOrder.put(b, count++);
+            for (Block b : blocks) {
+                depthFirstOrder.put(b, count);
+                blocksInOrder[count] = b;
+                count++;
             }
 
-            queue = new PriorityQueue<Block>(11, new DFOComparator());
+            queued = new BitSet(blocksInOrder.length);
         }
 
         public boolean isEmpty() {
-            return queue.isEmpty();
+            return queued.isEmpty();
         }
 
         public boolean contains(Block block) {
-            return queue.contains(block);
+            return queued.get(depthFirstOrder.get(block));
         }
 
         public void add(Block block) {
-            queue.add(block);
+            queued.set(depthFirstOrder.get(block));
         }
 
         public Block poll() {
-            return queue.poll();
+            int next = queued.nextSetBit(0);
+            if (next < 0) {
+                return null;
+            }
+            queued.clear(next);
+            return blocksInOrder[next];
         }
 
         @Override
         public String toString() {
-            return "Worklist(" + queue + ")";
+            List<Block> blocks = new ArrayList<>();
+            for (int i = queued.nextSetBit(0); i >= 0; i = queued.nextSetBit(i + 1)) {
+                blocks.add(blocksInOrder[i]);
+            }
+            return "Worklist(" + blocks + ")";
         }
     }
 
@@ -696,8 +777,7 @@ public class Analysis<
 
     public AnalysisResult<A, S> getResult() {
         assert !isRunning;
-        IdentityHashMap<Tree, Node> treeLookup = cfg.getTreeLookup();
-        return new AnalysisResult<>(nodeValues, inputs, treeLookup, finalLocalValues);
+        return new AnalysisResult<>(nodeValues, inputs, cfg.getTreeLookupView(), finalLocalValues);
     }
 
     /**
@@ -8,7 +8,6 @@ import com.sun.source.tree.Tree;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.Map;
-import java.util.Map.Entry;
 import javax.lang.model.element.Element;
 import org.checkerframework.dataflow.cfg.block.Block;
 import org.checkerframework.dataflow.cfg.block.ExceptionBlock;
@@ -43,6 +42,18 @@ public class AnalysisResult<A extends AbstractValue<A>, S extends Store<S>> {
             IdentityHashMap<Block, TransferInput<A, S>> stores,
             IdentityHashMap<Tree, Node> treeLookup,
             HashMap<Element, A> finalLocalValues) {
+        this(nodeValues, stores, (Map<Tree, Node>) treeLookup, finalLocalValues);
+    }
+
+    /**
+     * Initialize with a given node-value mapping. The tree lookup may be a read-only view, such as
+     * {@link org.checkerframework.dataflow.cfg.ControlFlowGraph#getTreeLookupView()}; it is copied.
+     */
+    public AnalysisResult(
+            Map<Node, A> nodeValues,
+            IdentityHashMap<Block, TransferInput<A, S>> stores,
+            Map<Tree, Node> treeLookup,
+            HashMap<Element, A> finalLocalValues) {
         this.nodeValues = new IdentityHashMap<>(nodeValues);
         this.treeLookup = new IdentityHashMap<>(treeLookup);
         this.stores = stores;
@@ -59,18 +70,11 @@ public class AnalysisResult<A extends AbstractValue<A>, S extends Store<S>> {
 
     /** Combine with another analysis result. */
     public void combine(AnalysisResult<A, S> other) {
-        for (Entry<Node, A> e : other.nodeValues.entrySet()) {
-            nodeValues.put(e.getKey(), e.getValue());
-        }
-        for (Entry<Tree, Node> e : other.treeLookup.entrySet()) {
-            treeLookup.put(e.getKey(), e.getValue());
-        }
-        for (Entry<Block, TransferInput<A, S>> e : other.stores.entrySet()) {
-            stores.put(e.getKey(), e.getValue());
-        }
-        for (Entry<Element, A> e : other.finalLocalValues.entrySet()) {
-            finalLocalValues.put(e.getKey(), e.getValue());
-        }
+        // putAll resizes each map at most once.
+        nodeValues.putAll(other.nodeValues);
+        treeLookup.putAll(other.treeLookup);
+        stores.putAll(other.stores);
+        finalLocalValues.putAll(other.finalLocalValues);
     }
 
     /** @return the value of effectively final local variables */
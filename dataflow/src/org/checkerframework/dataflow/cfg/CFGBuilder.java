@@ -2252,10 +2252,7 @@ public class CFGBuilder {
 
             /* Check for the TerminatesExecution annotation. */
             Element methodElement = InternalUtils.symbol(tree);
-            boolean terminatesExecution =
-                    annotationProvider.getDeclAnnotation(methodElement, TerminatesExecution.class)
-                            != null;
-            if (terminatesExecution) {
+            if (terminatesExecution(methodElement)) {
                 extendedNode.setTerminatesExecution(true);
             }
 
@@ -2302,6 +2299,15 @@ public class CFGBuilder {
             return null;
         }
 
+        /**
+         * Does a call to the given method terminate execution? True if the annotation provider
+         * finds a {@link TerminatesExecution} annotation on the method.
+         */
+        protected boolean terminatesExecution(Element methodElement) {
+            return annotationProvider.getDeclAnnotation(methodElement, TerminatesExecution.class)
+                    != null;
+        }
+
         /**
          * Should assertions be assumed to be executed for a given {@link AssertTree}? False by
          * default.
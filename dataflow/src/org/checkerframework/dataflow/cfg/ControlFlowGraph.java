@@ -11,8 +11,10 @@ import java.util.Collections;
 import java.util.Deque;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import org.checkerframework.dataflow.cfg.block.Block;
@@ -50,10 +52,10 @@ public class ControlFlowGraph {
      * map to two distinct Nodes. The Node for the pre-conversion value is stored in treeLookup,
      * while the Node for the post-conversion value is stored in convertedTreeLookup.
      */
-    protected IdentityHashMap<Tree, Node> treeLookup;
+    protected final IdentityHashMap<Tree, Node> treeLookup;
 
     /** Map from AST {@link Tree}s to post-conversion {@link Node}s. */
-    protected IdentityHashMap<Tree, Node> convertedTreeLookup;
+    protected final IdentityHashMap<Tree, Node> convertedTreeLookup;
 
     /**
      * All return nodes (if any) encountered. Only includes return statements that actually return
@@ -81,11 +83,11 @@ public class ControlFlowGraph {
 
     /** @return the {@link Node} to which the {@link Tree} {@code t} corresponds. */
     public Node getNodeCorrespondingToTree(Tree t) {
-        if (convertedTreeLookup.containsKey(t)) {
-            return convertedTreeLookup.get(t);
-        } else {
-            return treeLookup.get(t);
+        Node converted = convertedTreeLookup.get(t);
+        if (converted != null) {
+            return converted;
         }
+        return treeLookup.get(t);
     }
 
     /** @return the entry block of the control flow graph. */
@@ -183,6 +185,48 @@ public class ControlFlowGraph {
         return dfsOrderResult;
     }
 
+    /**
+     * Returns the back edges of this control flow graph. An edge is a back edge if it leads to a
+     * block on the current path of a depth-first traversal from the entry block. The targets of
+     * back edges are the loop heads.
+     *
+     * @return a map from each loop head to the sources of the back edges to it, both compared by
+     *     identity
+     */
+    public Map<Block, Set<Block>> getBackEdges() {
+        Map<Block, Set<Block>> backEdges = new IdentityHashMap<>();
+        Set<Block> visited = new HashSet<>();
+        Set<Block> onPath = new HashSet<>();
+        Deque<Block> path = new LinkedList<>();
+        Deque<Iterator<Block>> successors = new LinkedList<>();
+        visited.add(entryBlock);
+        onPath.add(entryBlock);
+        path.push(entryBlock);
+        successors.push(getSuccessors(entryBlock).iterator());
+        while (!path.isEmpty()) {
+            Iterator<Block> succs = successors.peek();
+            if (succs.hasNext()) {
+                Block succ = succs.next();
+                if (onPath.contains(succ)) {
+                    Set<Block> sources = backEdges.get(succ);
+                    if (sources == null) {
+                        sources = Collections.newSetFromMap(new IdentityHashMap<Block, Boolean>());
+                        backEdges.put(succ, sources);
+                    }
+                    sources.add(path.peek());
+                } else if (visited.add(succ)) {
+                    onPath.add(succ);
+                    path.push(succ);
+                    successors.push(getSuccessors(succ).iterator());
+                }
+            } else {
+                onPath.remove(path.pop());
+                successors.pop();
+            }
+        }
+        return backEdges;
+    }
+
     /**
      * Get a list of all successor Blocks for cur
      *
@@ -216,6 +260,14 @@ public class ControlFlowGraph {
         return new IdentityHashMap<>(treeLookup);
     }
 
+    /**
+     * @return an unmodifiable view of the tree-lookup map. Unlike {@link #getTreeLookup()}, this
+     *     does not copy the map; use it when the caller copies the entries anyway.
+     */
+    public Map<Tree, Node> getTreeLookupView() {
+        return Collections.unmodifiableMap(treeLookup);
+    }
+
     /**
      * Get the {@link MethodTree} of the CFG if the argument {@link Tree} maps to a {@link Node} in
      * the CFG or null otherwise.
@@ -1,5 +1,9 @@
 package org.checkerframework.dataflow.cfg.block;
 
+/*>>>
+import org.checkerframework.checker.nullness.qual.Nullable;
+*/
+
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -15,12 +19,15 @@ import org.checkerframework.dataflow.cfg.node.Node;
  */
 public class ExceptionBlockImpl extends SingleSuccessorBlockImpl implements ExceptionBlock {
 
-    /** Set of exceptional successors. */
-    protected Map<TypeMirror, Set<Block>> exceptionalSuccessors;
+    /**
+     * Set of exceptional successors, or null if there are none. Allocated lazily, because most
+     * exception blocks are built for nodes that cannot throw a checked exception and have few or no
+     * exceptional successors.
+     */
+    protected /*@Nullable*/ Map<TypeMirror, Set<Block>> exceptionalSuccessors;
 
     public ExceptionBlockImpl() {
         type = BlockType.EXCEPTION_BLOCK;
-        exceptionalSuccessors = new HashMap<>();
     }
 
     /** The node of this block. */
@@ -40,11 +47,11 @@ public class ExceptionBlockImpl extends SingleSuccessorBlockImpl implements Exce
     /** Add an exceptional successor. */
     public void addExceptionalSuccessor(BlockImpl b, TypeMirror cause) {
         if (exceptionalSuccessors == null) {
-            exceptionalSuccessors = new HashMap<>();
+            exceptionalSuccessors = new HashMap<>(4);
         }
         Set<Block> blocks = exceptionalSuccessors.get(cause);
         if (blocks == null) {
-            blocks = new HashSet<Block>();
+            blocks = new HashSet<Block>(4);
             exceptionalSuccessors.put(cause, blocks);
         }
         blocks.add(b);
@@ -0,0 +1,157 @@
+package org.checkerframework.dataflow.util;
+
+import java.util.AbstractMap;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A hash map whose {@link #copy()} is a constant-time operation. The copy shares the entries of
+ * the original map; the entries are copied only when either map is modified after the copy was
+ * made.
+ *
+ * <p>The collection views returned by {@link #keySet()}, {@link #values()} and {@link #entrySet()}
+ * are unmodifiable.
+ */
+public final class CopyOnWriteHashMap<K, V> extends AbstractMap<K, V> {
+
+    /** The entries of this map, possibly shared with other maps. */
+    private HashMap<K, V> map;
+
+    /** True if {@link #map} may be shared with another map and must be copied before a write. */
+    private boolean shared;
+
+    /** Creates an empty map. */
+    public CopyOnWriteHashMap() {
+        this.map = new HashMap<K, V>();
+        this.shared = false;
+    }
+
+    /** Creates a map with the same entries as {@code other}. */
+    public CopyOnWriteHashMap(Map<? extends K, ? extends V> other) {
+        this.map = new HashMap<K, V>(other);
+        this.shared = false;
+    }
+
+    private CopyOnWriteHashMap(HashMap<K, V> map) {
+        this.map = map;
+        this.shared = true;
+    }
+
+    /**
+     * Returns a map with the same entries as this one. This operation does not copy the entries.
+     *
+     * @return a copy of this map
+     */
+    public CopyOnWriteHashMap<K, V> copy() {
+        shared = true;
+        return new CopyOnWriteHashMap<K, V>(map);
+    }
+
+    /**
+     * Returns true if this map and {@code other} share their entries, which is the case if one is
+     * a copy of the other and neither has been modified since. In this case the maps are equal.
+     */
+    public boolean sharesEntriesWith(Map<?, ?> other) {
+        return other instanceof CopyOnWriteHashMap
+                && ((CopyOnWriteHashMap<?, ?>) other).map == map;
+    }
+
+    /** Ensures that {@link #map} is not shared with any other map, so it may be modified. */
+    private void ensureUnshared() {
+        if (shared) {
+            map = new HashMap<K, V>(map);
+            shared = false;
+        }
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return map.containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return map.containsValue(value);
+    }
+
+    @Override
+    public V get(Object key) {
+        return map.get(key);
+    }
+
+    @Override
+    public V put(K key, V value) {
+        ensureUnshared();
+        return map.put(key, value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        if (!map.containsKey(key)) {
+            return null;
+        }
+        ensureUnshared();
+        return map.remove(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>If this map is empty and {@code m} is a {@link CopyOnWriteHashMap}, this map shares the
+     * entries of {@code m} as if it were a {@link #copy()} of {@code m}.
+     */
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        if (map.isEmpty() && m instanceof CopyOnWriteHashMap) {
+            CopyOnWriteHashMap<? extends K, ? extends V> other =
+                    (CopyOnWriteHashMap<? extends K, ? extends V>) m;
+            other.shared = true;
+            // Safe because the shared entries are copied before either map is modified.
+            @SuppressWarnings("unchecked")
+            HashMap<K, V> otherMap = (HashMap<K, V>) other.map;
+            map = otherMap;
+            shared = true;
+            return;
+        }
+        ensureUnshared();
+        map.putAll(m);
+    }
+
+    @Override
+    public void clear() {
+        if (shared) {
+            map = new HashMap<K, V>();
+            shared = false;
+        } else {
+            map.clear();
+        }
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return Collections.unmodifiableSet(map.keySet());
+    }
+
+    @Override
+    public Collection<V> values() {
+        return Collections.unmodifiableCollection(map.values());
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return Collections.unmodifiableMap(map).entrySet();
+    }
+}
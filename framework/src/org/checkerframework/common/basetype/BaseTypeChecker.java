@@ -4,6 +4,8 @@ import com.sun.source.util.TreePath;
 import com.sun.tools.javac.processing.JavacProcessingEnvironment;
 import com.sun.tools.javac.util.Context;
 import com.sun.tools.javac.util.Log;
+import java.io.IOException;
+import java.io.PrintWriter;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
@@ -22,12 +24,14 @@ import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.TypeElement;
 import org.checkerframework.common.reflection.MethodValChecker;
 import org.checkerframework.dataflow.cfg.CFGVisualizer;
+import org.checkerframework.framework.flow.CFGCache;
 import org.checkerframework.framework.qual.SubtypeOf;
 import org.checkerframework.framework.source.SourceChecker;
 import org.checkerframework.framework.type.AnnotatedTypeFactory;
 import org.checkerframework.framework.type.GenericAnnotatedTypeFactory;
 import org.checkerframework.framework.type.QualifierHierarchy;
 import org.checkerframework.framework.type.TypeHierarchy;
+import org.checkerframework.framework.util.FlowProfiler;
 import org.checkerframework.javacutil.AbstractTypeProcessor;
 import org.checkerframework.javacutil.AnnotationProvider;
 import org.checkerframework.javacutil.ErrorReporter;
@@ -441,6 +445,31 @@ public abstract class BaseTypeChecker extends SourceChecker implements BaseTypeC
         }
         this.errsOnLastExit = nerrorsOfAllPreviousCheckers;
         super.typeProcess(element, tree);
+
+        if (cfgCache != null) {
+            // All checkers are done with the CFGs of this class.
+            cfgCache.clear();
+        }
+    }
+
+    /**
+     * The CFGs shared by the type factories of this checker and its subcheckers, or null if this
+     * checker is a subchecker or has no subcheckers.
+     */
+    private CFGCache cfgCache;
+
+    /**
+     * Returns the cache of CFGs that the type factories of the outermost checker and all its
+     * subcheckers share while they check a class, or null if there is only one checker.
+     */
+    public CFGCache getCFGCache() {
+        if (parentChecker instanceof BaseTypeChecker) {
+            return ((BaseTypeChecker) parentChecker).getCFGCache();
+        }
+        if (cfgCache == null && !getSubcheckers().isEmpty()) {
+            cfgCache = new CFGCache();
+        }
+        return cfgCache;
     }
 
     @Override
@@ -450,6 +479,26 @@ public abstract class BaseTypeChecker extends SourceChecker implements BaseTypeC
         }
 
         super.typeProcessingOver();
+
+        if (shouldWriteFlowProfile()) {
+            writeFlowProfile(getOption("flowProfile"));
+        }
+    }
+
+    @Override
+    protected void printStats() {
+        super.printStats();
+        for (BaseTypeChecker checker : getSubcheckers()) {
+            checker.printCacheStatistics();
+        }
+        printCacheStatistics();
+    }
+
+    /** Print the cache statistics of this checker's type factory, if it has been created. */
+    private void printCacheStatistics() {
+        if (getVisitor() != null) {
+            getTypeFactory().printCacheStatistics();
+        }
     }
 
     @Override
@@ -497,7 +546,9 @@ public abstract class BaseTypeChecker extends SourceChecker implements BaseTypeC
 
     @Override
     protected boolean shouldAddShutdownHook() {
-        if (super.shouldAddShutdownHook() || getTypeFactory().getCFGVisualizer() != null) {
+        if (super.shouldAddShutdownHook()
+                || getTypeFactory().getCFGVisualizer() != null
+                || shouldWriteFlowProfile()) {
             return true;
         }
         for (BaseTypeChecker checker : getSubcheckers()) {
@@ -523,5 +574,52 @@ public abstract class BaseTypeChecker extends SourceChecker implements BaseTypeC
                 viz.shutdown();
             }
         }
+
+        if (shouldWriteFlowProfile() && !flowProfileWritten) {
+            // typeProcessingOver is not called if an error is reported.
+            writeFlowProfile(getOption("flowProfile"));
+        }
+    }
+
+    /** Whether the -AflowProfile file has been written when type processing was over. */
+    private boolean flowProfileWritten = false;
+
+    /**
+     * Whether this checker writes the -AflowProfile file. Only the outermost checker does; the file
+     * includes the profiles of its subcheckers.
+     */
+    private boolean shouldWriteFlowProfile() {
+        return parentChecker == null && hasOption("flowProfile");
+    }
+
+    /**
+     * Writes the profiles recorded by the type factories of this checker and its subcheckers to
+     * {@code filename}, as CSV.
+     *
+     * @param filename the file given by the {@code -AflowProfile} option
+     */
+    private void writeFlowProfile(String filename) {
+        if (filename == null) {
+            ErrorReporter.errorAbort("-AflowProfile specified without a file name");
+        }
+        try {
+            PrintWriter writer = new PrintWriter(filename, "UTF-8");
+            writer.println(FlowProfiler.CSV_HEADER);
+            for (BaseTypeChecker checker : getSubcheckers()) {
+                checker.writeFlowProfile(writer);
+            }
+            writeFlowProfile(writer);
+            writer.close();
+            flowProfileWritten = true;
+        } catch (IOException e) {
+            ErrorReporter.errorAbort("Could not write flow profile to " + filename, e);
+        }
+    }
+
+    /** Writes the profile recorded by this checker's type factory, if it has been created. */
+    private void writeFlowProfile(PrintWriter writer) {
+        if (getVisitor() != null && getTypeFactory().getFlowProfiler() != null) {
+            getTypeFactory().getFlowProfiler().writeCSV(writer);
+        }
     }
 }
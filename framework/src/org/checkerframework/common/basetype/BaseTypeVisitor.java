@@ -173,6 +173,9 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
     /** An instance of the {@link ContractsUtils} helper class. */
     protected final ContractsUtils contractsUtils;
 
+    /** Whether whole-program inference is enabled, see -Ainfer. */
+    private final boolean infer;
+
     /**
      * @param checker the type-checker associated with this visitor (for callbacks to {@link
      *     TypeHierarchy#isSubtype})
@@ -183,6 +186,7 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
         this.checker = checker;
         this.atypeFactory = createTypeFactory();
         this.contractsUtils = ContractsUtils.getInstance(atypeFactory);
+        this.infer = checker.hasOption("infer");
         this.positions = trees.getSourcePositions();
         this.visitorState = atypeFactory.getVisitorState();
         this.typeValidator = createTypeValidator();
@@ -195,6 +199,7 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
         this.checker = checker;
         this.atypeFactory = typeFactory;
         this.contractsUtils = ContractsUtils.getInstance(atypeFactory);
+        this.infer = checker.hasOption("infer");
         this.positions = trees.getSourcePositions();
         this.visitorState = atypeFactory.getVisitorState();
         this.typeValidator = createTypeValidator();
@@ -255,11 +260,28 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
     @Override
     public Void scan(Tree tree, Void p) {
         if (tree != null && getCurrentPath() != null) {
-            this.visitorState.setPath(new TreePath(getCurrentPath(), tree));
+            TreePath path = new TreePath(getCurrentPath(), tree);
+            if (tree.getKind() == Tree.Kind.METHOD && isSuppressed((MethodTree) tree)) {
+                // Every warning the method could produce would be suppressed.
+                return null;
+            }
+            this.visitorState.setPath(path);
         }
         return super.scan(tree, p);
     }
 
+    /**
+     * Returns true if all warnings of this checker are suppressed within {@code method} by a
+     * {@literal @}SuppressWarnings annotation, so that it need not be checked. Always false with
+     * whole-program inference, which gathers information while checking suppressed code.
+     *
+     * @param method a method declaration
+     * @see org.checkerframework.framework.source.SourceChecker#suppressesAllWarnings(Element)
+     */
+    private boolean isSuppressed(MethodTree method) {
+        return !infer && checker.suppressesAllWarnings(TreeUtils.elementFromDeclaration(method));
+    }
+
     @Override
     public Void visitClass(ClassTree node, Void p) {
         if (checker.shouldSkipDefs(node)) {
@@ -332,6 +354,7 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
      */
     @Override
     public Void visitMethod(MethodTree node, Void p) {
+        long startTime = atypeFactory.getFlowProfiler() == null ? 0 : System.nanoTime();
 
         // We copy the result from getAnnotatedType to ensure that
         // circular types (e.g. K extends Comparable<K>) are represented
@@ -460,6 +483,16 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
 
             visitorState.setMethodReceiver(preMRT);
             visitorState.setMethodTree(preMT);
+
+            if (atypeFactory.getFlowProfiler() != null) {
+                atypeFactory
+                        .getFlowProfiler()
+                        .recordVisit(
+                                root,
+                                visitorState.getClassTree(),
+                                node,
+                                System.nanoTime() - startTime);
+            }
         }
     }
 
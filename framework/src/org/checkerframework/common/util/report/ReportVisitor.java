@@ -15,7 +15,6 @@ import com.sun.source.tree.Tree;
 import com.sun.source.tree.TypeCastTree;
 import java.lang.annotation.Annotation;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
@@ -37,7 +36,6 @@ import org.checkerframework.common.util.report.qual.ReportWrite;
 import org.checkerframework.framework.source.Result;
 import org.checkerframework.framework.type.AnnotatedTypeFactory;
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedDeclaredType;
-import org.checkerframework.framework.util.AnnotatedTypes;
 import org.checkerframework.javacutil.ElementUtils;
 import org.checkerframework.javacutil.TreeUtils;
 
@@ -164,12 +162,7 @@ public class ReportVisitor extends BaseTypeVisitor<BaseAnnotatedTypeFactory> {
         boolean report = false;
 
         // Check all overridden methods.
-        Map<AnnotatedDeclaredType, ExecutableElement> overriddenMethods =
-                AnnotatedTypes.overriddenMethods(elements, atypeFactory, method);
-        for (Map.Entry<AnnotatedDeclaredType, ExecutableElement> pair :
-                overriddenMethods.entrySet()) {
-            // AnnotatedDeclaredType overriddenType = pair.getKey();
-            ExecutableElement exe = pair.getValue();
+        for (ExecutableElement exe : atypeFactory.getOverriddenMethodElements(method)) {
             report = this.atypeFactory.getDeclAnnotation(exe, ReportOverride.class) != null;
             if (report) {
                 // Set method to report the right method, if found.
@@ -193,12 +186,7 @@ public class ReportVisitor extends BaseTypeVisitor<BaseAnnotatedTypeFactory> {
 
         if (!report) {
             // Find all methods that are overridden by the called method
-            Map<AnnotatedDeclaredType, ExecutableElement> overriddenMethods =
-                    AnnotatedTypes.overriddenMethods(elements, atypeFactory, method);
-            for (Map.Entry<AnnotatedDeclaredType, ExecutableElement> pair :
-                    overriddenMethods.entrySet()) {
-                // AnnotatedDeclaredType overriddenType = pair.getKey();
-                ExecutableElement exe = pair.getValue();
+            for (ExecutableElement exe : atypeFactory.getOverriddenMethodElements(method)) {
                 report = this.atypeFactory.getDeclAnnotation(exe, ReportCall.class) != null;
                 if (report) {
                     // Always report the element that has the annotation.
@@ -34,6 +34,7 @@ import org.checkerframework.common.value.qual.StaticallyExecutable;
 import org.checkerframework.common.value.qual.StringVal;
 import org.checkerframework.common.value.qual.UnknownVal;
 import org.checkerframework.framework.flow.CFAbstractAnalysis;
+import org.checkerframework.framework.flow.CFAnalysis;
 import org.checkerframework.framework.flow.CFStore;
 import org.checkerframework.framework.flow.CFTransfer;
 import org.checkerframework.framework.flow.CFValue;
@@ -70,6 +71,14 @@ public class ValueAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
     /** The maximum number of values allowed in an annotation's array */
     protected static final int MAX_VALUES = 10;
 
+    /**
+     * The number of times the values flowing along a back edge may change before dataflow analysis
+     * widens them, see {@link ValueQualifierHierarchy#widenedUpperBound}. Most loops converge within
+     * a few iterations; a set of values that still grows after that usually keeps growing until it
+     * exceeds {@link #MAX_VALUES}.
+     */
+    protected static final int MAX_COUNT_BEFORE_WIDENING = 3;
+
     protected Set<String> coveredClassStrings;
 
     /** should this type factory report warnings? * */
@@ -111,6 +120,11 @@ public class ValueAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
         }
     }
 
+    @Override
+    protected CFAnalysis createFlowAnalysis(List<Pair<VariableElement, CFValue>> fieldValues) {
+        return new CFAnalysis(checker, this, fieldValues, MAX_COUNT_BEFORE_WIDENING);
+    }
+
     @Override
     public CFTransfer createFlowTransferFunction(
             CFAbstractAnalysis<CFValue, CFStore, CFTransfer> analysis) {
@@ -305,6 +319,28 @@ public class ValueAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
             }
         }
 
+        /**
+         * Widens to UnknownVal if the set of possible values grew since the previous iteration, so
+         * that a loop does not add values one iteration at a time until there are more than {@link
+         * #MAX_VALUES} of them.
+         */
+        @Override
+        public AnnotationMirror widenedUpperBound(
+                AnnotationMirror newQualifier, AnnotationMirror previousQualifier) {
+            AnnotationMirror lub = leastUpperBound(newQualifier, previousQualifier);
+            // Compare by subtyping: the order of the values in the annotations may differ.
+            if (lub == null || isSubtype(lub, previousQualifier)) {
+                return lub;
+            }
+            if (AnnotationUtils.areSameByClass(lub, IntVal.class)
+                    || AnnotationUtils.areSameByClass(lub, DoubleVal.class)
+                    || AnnotationUtils.areSameByClass(lub, StringVal.class)
+                    || AnnotationUtils.areSameByClass(lub, ArrayLen.class)) {
+                return UNKNOWNVAL;
+            }
+            return lub;
+        }
+
         /**
          * Computes subtyping as per the subtyping in the qualifier hierarchy structure unless both
          * annotations are Value. In this case, rhs is a subtype of lhs iff lhs contains at least
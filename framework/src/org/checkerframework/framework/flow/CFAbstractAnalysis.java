@@ -1,6 +1,8 @@
 package org.checkerframework.framework.flow;
 
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.VariableElement;
@@ -8,6 +10,8 @@ import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import org.checkerframework.common.basetype.BaseTypeChecker;
 import org.checkerframework.dataflow.analysis.Analysis;
+import org.checkerframework.dataflow.cfg.ControlFlowGraph;
+import org.checkerframework.dataflow.cfg.block.Block;
 import org.checkerframework.framework.source.SourceChecker;
 import org.checkerframework.framework.type.AnnotatedTypeFactory;
 import org.checkerframework.framework.type.AnnotatedTypeMirror;
@@ -60,10 +64,48 @@ public abstract class CFAbstractAnalysis<
     /** Initial abstract types for fields. */
     protected final List<Pair<VariableElement, V>> fieldValues;
 
+    /**
+     * The number of times a back edge may change the store before a loop head before the stores
+     * flowing along it are widened instead of joined, or -1 if the analysis never widens.
+     */
+    protected final int maxCountBeforeWidening;
+
+    /**
+     * The back edges of the control flow graph being analyzed, as a map from each loop head to the
+     * sources of its back edges, if the analysis may widen.
+     */
+    protected Map<Block, Set<Block>> backEdges;
+
+    /**
+     * For each loop head, how often the store flowing along each back edge has changed the store
+     * before the loop head since the store entering the loop last changed, if the analysis may
+     * widen.
+     */
+    protected IdentityHashMap<Block, IdentityHashMap<Block, Integer>> backEdgeUpdateCount;
+
     public CFAbstractAnalysis(
             BaseTypeChecker checker,
             GenericAnnotatedTypeFactory<V, S, T, ? extends CFAbstractAnalysis<V, S, T>> factory,
             List<Pair<VariableElement, V>> fieldValues) {
+        this(checker, factory, fieldValues, -1);
+    }
+
+    /**
+     * Once the store flowing along a back edge has changed the store before the loop head {@code
+     * maxCountBeforeWidening} times, the stores flowing along that edge are combined using {@link
+     * CFAbstractStore#widenedUpperBound} rather than {@link CFAbstractStore#leastUpperBound}. The
+     * count starts over whenever the store entering the loop changes, e.g. in the next iteration
+     * of an enclosing loop. Stores flowing into other blocks are always joined, so widening only
+     * affects loops that have not converged after that many iterations.
+     *
+     * @param maxCountBeforeWidening the number of times a back edge may change the store before a
+     *     loop head before it is widened, or -1 to never widen
+     */
+    public CFAbstractAnalysis(
+            BaseTypeChecker checker,
+            GenericAnnotatedTypeFactory<V, S, T, ? extends CFAbstractAnalysis<V, S, T>> factory,
+            List<Pair<VariableElement, V>> fieldValues,
+            int maxCountBeforeWidening) {
         super(checker.getProcessingEnvironment());
 
         qualifierHierarchy = factory.getQualifierHierarchy();
@@ -72,6 +114,52 @@ public abstract class CFAbstractAnalysis<
         this.checker = checker;
         this.transferFunction = createTransferFunction();
         this.fieldValues = fieldValues;
+        this.maxCountBeforeWidening = maxCountBeforeWidening;
+    }
+
+    @Override
+    protected void init(ControlFlowGraph cfg) {
+        super.init(cfg);
+        if (maxCountBeforeWidening != -1) {
+            backEdges = cfg.getBackEdges();
+            backEdgeUpdateCount = new IdentityHashMap<>();
+        }
+    }
+
+    @Override
+    protected S mergeStores(S newStore, S previousStore, Block b) {
+        Set<Block> backEdgeSources = backEdges == null ? null : backEdges.get(b);
+        if (backEdgeSources == null) {
+            return super.mergeStores(newStore, previousStore, b);
+        }
+        IdentityHashMap<Block, Integer> updateCount = backEdgeUpdateCount.get(b);
+        if (updateCount == null) {
+            updateCount = new IdentityHashMap<>();
+            backEdgeUpdateCount.put(b, updateCount);
+        }
+        if (!backEdgeSources.contains(currentBlock)) {
+            // The store entering the loop.
+            S result = super.mergeStores(newStore, previousStore, b);
+            if (!result.equals(previousStore)) {
+                updateCount.clear();
+            }
+            return result;
+        }
+        // Count the updates per back edge rather than per loop head: the worklist may iterate
+        // one path through the loop body many times before it first analyzes another one.
+        Integer count = updateCount.get(currentBlock);
+        int updates = count == null ? 0 : count;
+        S result;
+        if (updates >= maxCountBeforeWidening) {
+            storeMergeCount++;
+            result = newStore.widenedUpperBound(previousStore);
+        } else {
+            result = super.mergeStores(newStore, previousStore, b);
+        }
+        if (!result.equals(previousStore)) {
+            updateCount.put(currentBlock, updates + 1);
+        }
+        return result;
     }
 
     public List<Pair<VariableElement, V>> getFieldValues() {
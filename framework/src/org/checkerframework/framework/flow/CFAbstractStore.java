@@ -4,7 +4,7 @@ package org.checkerframework.framework.flow;
 import org.checkerframework.checker.nullness.qual.Nullable;
 */
 
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -30,6 +30,7 @@ import org.checkerframework.dataflow.cfg.node.MethodInvocationNode;
 import org.checkerframework.dataflow.cfg.node.Node;
 import org.checkerframework.dataflow.cfg.node.ThisLiteralNode;
 import org.checkerframework.dataflow.qual.SideEffectFree;
+import org.checkerframework.dataflow.util.CopyOnWriteHashMap;
 import org.checkerframework.dataflow.util.PurityUtils;
 import org.checkerframework.framework.qual.MonotonicQualifier;
 import org.checkerframework.framework.type.AnnotatedTypeFactory;
@@ -100,27 +101,47 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
 
     public CFAbstractStore(CFAbstractAnalysis<V, S, ?> analysis, boolean sequentialSemantics) {
         this.analysis = analysis;
-        localVariableValues = new HashMap<>();
+        localVariableValues = new CopyOnWriteHashMap<>();
         thisValue = null;
-        fieldValues = new HashMap<>();
-        methodValues = new HashMap<>();
-        arrayValues = new HashMap<>();
-        classValues = new HashMap<>();
+        fieldValues = new CopyOnWriteHashMap<>();
+        methodValues = new CopyOnWriteHashMap<>();
+        arrayValues = new CopyOnWriteHashMap<>();
+        classValues = new CopyOnWriteHashMap<>();
         this.sequentialSemantics = sequentialSemantics;
     }
 
-    /** Copy constructor. */
+    /**
+     * Copy constructor. The maps of the new store share their entries with the maps of {@code
+     * other} until either store modifies them, so copying a store takes constant time.
+     */
     protected CFAbstractStore(CFAbstractStore<V, S> other) {
         this.analysis = other.analysis;
-        localVariableValues = new HashMap<>(other.localVariableValues);
+        localVariableValues = copyMap(other.localVariableValues);
         thisValue = other.thisValue;
-        fieldValues = new HashMap<>(other.fieldValues);
-        methodValues = new HashMap<>(other.methodValues);
-        arrayValues = new HashMap<>(other.arrayValues);
-        classValues = new HashMap<>(other.classValues);
+        fieldValues = copyMap(other.fieldValues);
+        methodValues = copyMap(other.methodValues);
+        arrayValues = copyMap(other.arrayValues);
+        classValues = copyMap(other.classValues);
         sequentialSemantics = other.sequentialSemantics;
     }
 
+    /** Returns a copy of {@code map}, sharing its entries if possible. */
+    private static <K, W> Map<K, W> copyMap(Map<K, W> map) {
+        if (map instanceof CopyOnWriteHashMap) {
+            return ((CopyOnWriteHashMap<K, W>) map).copy();
+        }
+        return new CopyOnWriteHashMap<>(map);
+    }
+
+    /**
+     * Returns true if the two maps are known to share their entries (and are therefore equal)
+     * without comparing them entry by entry.
+     */
+    private static boolean sharesEntries(Map<?, ?> map1, Map<?, ?> map2) {
+        return map1 instanceof CopyOnWriteHashMap
+                && ((CopyOnWriteHashMap<?, ?>) map1).sharesEntriesWith(map2);
+    }
+
     /**
      * Set the abstract value of a method parameter (only adds the information to the store, does
      * not remove any other knowledge). Any previous information is erased; this method should only
@@ -188,7 +209,7 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
         if (!(analysis.checker.hasOption("assumeSideEffectFree")
                 || isSideEffectFree(atypeFactory, method))) {
             // update field values
-            Map<FlowExpressions.FieldAccess, V> newFieldValues = new HashMap<>();
+            Map<FlowExpressions.FieldAccess, V> newFieldValues = new CopyOnWriteHashMap<>();
             for (Entry<FlowExpressions.FieldAccess, V> e : fieldValues.entrySet()) {
                 FlowExpressions.FieldAccess fieldAccess = e.getKey();
                 V otherVal = e.getValue();
@@ -589,7 +610,7 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
      *     abstract value is not known).
      */
     protected void removeConflicting(FlowExpressions.FieldAccess fieldAccess, /*@Nullable*/ V val) {
-        Map<FlowExpressions.FieldAccess, V> newFieldValues = new HashMap<>();
+        Map<FlowExpressions.FieldAccess, V> newFieldValues = new CopyOnWriteHashMap<>();
         for (Entry<FlowExpressions.FieldAccess, V> e : fieldValues.entrySet()) {
             FlowExpressions.FieldAccess otherFieldAccess = e.getKey();
             V otherVal = e.getValue();
@@ -616,7 +637,7 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
         }
         fieldValues = newFieldValues;
 
-        Map<FlowExpressions.ArrayAccess, V> newArrayValues = new HashMap<>();
+        Map<FlowExpressions.ArrayAccess, V> newArrayValues = new CopyOnWriteHashMap<>();
         for (Entry<ArrayAccess, V> e : arrayValues.entrySet()) {
             FlowExpressions.ArrayAccess otherArrayAccess = e.getKey();
             V otherVal = e.getValue();
@@ -629,7 +650,7 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
         arrayValues = newArrayValues;
 
         // case 3:
-        methodValues = new HashMap<>();
+        methodValues = new CopyOnWriteHashMap<>();
     }
 
     /**
@@ -652,7 +673,7 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
      *     abstract value is not known).
      */
     protected void removeConflicting(FlowExpressions.ArrayAccess arrayAccess, /*@Nullable*/ V val) {
-        Map<FlowExpressions.ArrayAccess, V> newArrayValues = new HashMap<>();
+        Map<FlowExpressions.ArrayAccess, V> newArrayValues = new CopyOnWriteHashMap<>();
         for (Entry<FlowExpressions.ArrayAccess, V> e : arrayValues.entrySet()) {
             FlowExpressions.ArrayAccess otherArrayAccess = e.getKey();
             V otherVal = e.getValue();
@@ -672,7 +693,7 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
         arrayValues = newArrayValues;
 
         // case 2:
-        Map<FlowExpressions.FieldAccess, V> newFieldValues = new HashMap<>();
+        Map<FlowExpressions.FieldAccess, V> newFieldValues = new CopyOnWriteHashMap<>();
         for (Entry<FieldAccess, V> e : fieldValues.entrySet()) {
             FlowExpressions.FieldAccess otherFieldAccess = e.getKey();
             V otherVal = e.getValue();
@@ -687,7 +708,7 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
         fieldValues = newFieldValues;
 
         // case 3:
-        methodValues = new HashMap<>();
+        methodValues = new CopyOnWriteHashMap<>();
     }
 
     /**
@@ -704,7 +725,7 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
      * </ol>
      */
     protected void removeConflicting(LocalVariable var) {
-        Map<FlowExpressions.FieldAccess, V> newFieldValues = new HashMap<>();
+        Map<FlowExpressions.FieldAccess, V> newFieldValues = new CopyOnWriteHashMap<>();
         for (Entry<FlowExpressions.FieldAccess, V> e : fieldValues.entrySet()) {
             FlowExpressions.FieldAccess otherFieldAccess = e.getKey();
             // case 1:
@@ -715,7 +736,7 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
         }
         fieldValues = newFieldValues;
 
-        Map<FlowExpressions.ArrayAccess, V> newArrayValues = new HashMap<>();
+        Map<FlowExpressions.ArrayAccess, V> newArrayValues = new CopyOnWriteHashMap<>();
         for (Entry<FlowExpressions.ArrayAccess, V> e : arrayValues.entrySet()) {
             FlowExpressions.ArrayAccess otherArrayAccess = e.getKey();
             // case 2:
@@ -726,7 +747,7 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
         }
         arrayValues = newArrayValues;
 
-        Map<FlowExpressions.MethodCall, V> newMethodValues = new HashMap<>();
+        Map<FlowExpressions.MethodCall, V> newMethodValues = new CopyOnWriteHashMap<>();
         for (Entry<FlowExpressions.MethodCall, V> e : methodValues.entrySet()) {
             FlowExpressions.MethodCall otherMethodAccess = e.getKey();
             // case 3:
@@ -790,20 +811,11 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
     public S leastUpperBound(S other) {
         S newStore = analysis.createEmptyStore(sequentialSemantics);
 
-        for (Entry<FlowExpressions.LocalVariable, V> e : other.localVariableValues.entrySet()) {
-            // local variables that are only part of one store, but not the
-            // other are discarded, as one of store implicitly contains 'top'
-            // for that variable.
-            FlowExpressions.LocalVariable localVar = e.getKey();
-            if (localVariableValues.containsKey(localVar)) {
-                V otherVal = e.getValue();
-                V thisVal = localVariableValues.get(localVar);
-                V mergedVal = thisVal.leastUpperBound(otherVal);
-                if (mergedVal != null) {
-                    newStore.localVariableValues.put(localVar, mergedVal);
-                }
-            }
-        }
+        // local variables that are only part of one store, but not the
+        // other are discarded, as one of store implicitly contains 'top'
+        // for that variable.
+        newStore.localVariableValues.putAll(
+                lubMaps(localVariableValues, other.localVariableValues));
 
         // information about the current object
         {
@@ -815,60 +827,82 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
             }
         }
 
-        for (Entry<FlowExpressions.FieldAccess, V> e : other.fieldValues.entrySet()) {
-            // information about fields that are only part of one store, but not
-            // the other are discarded, as one store implicitly contains 'top'
-            // for that field.
-            FlowExpressions.FieldAccess el = e.getKey();
-            if (fieldValues.containsKey(el)) {
-                V otherVal = e.getValue();
-                V thisVal = fieldValues.get(el);
-                V mergedVal = thisVal.leastUpperBound(otherVal);
-                if (mergedVal != null) {
-                    newStore.fieldValues.put(el, mergedVal);
-                }
-            }
-        }
-        for (Entry<FlowExpressions.ArrayAccess, V> e : other.arrayValues.entrySet()) {
-            // information about arrays that are only part of one store, but not
-            // the other are discarded, as one store implicitly contains 'top'
-            // for that array access.
-            FlowExpressions.ArrayAccess el = e.getKey();
-            if (arrayValues.containsKey(el)) {
-                V otherVal = e.getValue();
-                V thisVal = arrayValues.get(el);
-                V mergedVal = thisVal.leastUpperBound(otherVal);
+        // information about fields, arrays, methods and classes that are
+        // only part of one store, but not the other are discarded, as one
+        // store implicitly contains 'top' for them.
+        newStore.fieldValues = lubMaps(fieldValues, other.fieldValues);
+        newStore.arrayValues = lubMaps(arrayValues, other.arrayValues);
+        newStore.methodValues = lubMaps(methodValues, other.methodValues);
+        newStore.classValues = lubMaps(classValues, other.classValues);
+        return newStore;
+    }
+
+    /**
+     * Compute an upper bound of this store and the store {@code previous} that was computed for
+     * the same program point by an earlier iteration of the dataflow analysis. Starting from the
+     * {@link #leastUpperBound}, each value is widened against the value of {@code previous} using
+     * {@link CFAbstractValue#widenUpperBound}, so the result may be wider than the least upper
+     * bound. Subclasses that track additional information only need to override {@link
+     * #leastUpperBound}. The analysis only widens stores at loop heads, see {@link
+     * CFAbstractAnalysis#mergeStores}.
+     *
+     * @param previous the store computed by an earlier iteration
+     * @return an upper bound of this store and {@code previous}
+     */
+    public S widenedUpperBound(S previous) {
+        S newStore = leastUpperBound(previous);
+        widenMap(newStore.localVariableValues, previous.localVariableValues);
+        if (newStore.thisValue != null) {
+            newStore.thisValue = newStore.thisValue.widenUpperBound(previous.thisValue);
+        }
+        widenMap(newStore.fieldValues, previous.fieldValues);
+        widenMap(newStore.arrayValues, previous.arrayValues);
+        widenMap(newStore.methodValues, previous.methodValues);
+        widenMap(newStore.classValues, previous.classValues);
+        return newStore;
+    }
+
+    /**
+     * Returns a map that contains the least upper bound of the values of each key that is in both
+     * {@code map1} and {@code map2}. If the maps share their entries, the result shares them too.
+     */
+    private static <K, V extends CFAbstractValue<V>> Map<K, V> lubMaps(
+            Map<K, V> map1, Map<K, V> map2) {
+        if (sharesEntries(map1, map2)) {
+            return copyMap(map1);
+        }
+        Map<K, V> result = new CopyOnWriteHashMap<>();
+        for (Entry<K, V> e : map2.entrySet()) {
+            K key = e.getKey();
+            V thisVal = map1.get(key);
+            if (thisVal != null) {
+                V mergedVal = thisVal.leastUpperBound(e.getValue());
                 if (mergedVal != null) {
-                    newStore.arrayValues.put(el, mergedVal);
+                    result.put(key, mergedVal);
                 }
             }
         }
-        for (Entry<MethodCall, V> e : other.methodValues.entrySet()) {
-            // information about methods that are only part of one store, but
-            // not the other are discarded, as one store implicitly contains
-            // 'top' for that field.
-            FlowExpressions.MethodCall el = e.getKey();
-            if (methodValues.containsKey(el)) {
-                V otherVal = e.getValue();
-                V thisVal = methodValues.get(el);
-                V mergedVal = thisVal.leastUpperBound(otherVal);
-                if (mergedVal != null) {
-                    newStore.methodValues.put(el, mergedVal);
-                }
-            }
+        return result;
+    }
+
+    /**
+     * Replaces each value in {@code map} by its widening against the value of the same key in
+     * {@code previous}, if any.
+     */
+    private static <K, V extends CFAbstractValue<V>> void widenMap(
+            Map<K, V> map, Map<K, V> previous) {
+        if (sharesEntries(map, previous)) {
+            return;
         }
-        for (Entry<FlowExpressions.ClassName, V> e : other.classValues.entrySet()) {
-            FlowExpressions.ClassName el = e.getKey();
-            if (classValues.containsKey(el)) {
-                V otherVal = e.getValue();
-                V thisVal = classValues.get(el);
-                V mergedVal = thisVal.leastUpperBound(otherVal);
-                if (mergedVal != null) {
-                    newStore.classValues.put(el, mergedVal);
+        for (Entry<K, V> e : new ArrayList<>(map.entrySet())) {
+            V previousVal = previous.get(e.getKey());
+            if (previousVal != null) {
+                V widenedVal = e.getValue().widenUpperBound(previousVal);
+                if (!widenedVal.equals(e.getValue())) {
+                    map.put(e.getKey(), widenedVal);
                 }
             }
         }
-        return newStore;
     }
 
     /**
@@ -878,34 +912,21 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
      * equals predicate.
      */
     protected boolean supersetOf(CFAbstractStore<V, S> other) {
-        for (Entry<FlowExpressions.LocalVariable, V> e : other.localVariableValues.entrySet()) {
-            FlowExpressions.LocalVariable key = e.getKey();
-            if (!localVariableValues.containsKey(key)
-                    || !localVariableValues.get(key).equals(e.getValue())) {
-                return false;
-            }
-        }
-        for (Entry<FlowExpressions.FieldAccess, V> e : other.fieldValues.entrySet()) {
-            FlowExpressions.FieldAccess key = e.getKey();
-            if (!fieldValues.containsKey(key) || !fieldValues.get(key).equals(e.getValue())) {
-                return false;
-            }
-        }
-        for (Entry<FlowExpressions.ArrayAccess, V> e : other.arrayValues.entrySet()) {
-            FlowExpressions.ArrayAccess key = e.getKey();
-            if (!arrayValues.containsKey(key) || !arrayValues.get(key).equals(e.getValue())) {
-                return false;
-            }
-        }
-        for (Entry<MethodCall, V> e : other.methodValues.entrySet()) {
-            FlowExpressions.MethodCall key = e.getKey();
-            if (!methodValues.containsKey(key) || !methodValues.get(key).equals(e.getValue())) {
-                return false;
-            }
+        return mapSupersetOf(localVariableValues, other.localVariableValues)
+                && mapSupersetOf(fieldValues, other.fieldValues)
+                && mapSupersetOf(arrayValues, other.arrayValues)
+                && mapSupersetOf(methodValues, other.methodValues)
+                && mapSupersetOf(classValues, other.classValues);
+    }
+
+    /** Returns true iff {@code map1} contains all entries of {@code map2}. */
+    private static <K, V> boolean mapSupersetOf(Map<K, V> map1, Map<K, V> map2) {
+        if (sharesEntries(map1, map2)) {
+            return true;
         }
-        for (Entry<FlowExpressions.ClassName, V> e : other.classValues.entrySet()) {
-            FlowExpressions.ClassName key = e.getKey();
-            if (!classValues.containsKey(key) || !classValues.get(key).equals(e.getValue())) {
+        for (Entry<K, V> e : map2.entrySet()) {
+            K key = e.getKey();
+            if (!map1.containsKey(key) || !map1.get(key).equals(e.getValue())) {
                 return false;
             }
         }
@@ -341,6 +341,35 @@ public abstract class CFAbstractValue<V extends CFAbstractValue<V>> implements A
         return analysis.createAbstractValue(lub, lubTypeMirror);
     }
 
+    /**
+     * Compute an upper bound of this value and the value {@code previous} that was computed for
+     * the same program point by an earlier iteration of the dataflow analysis. Starting from the
+     * {@link #leastUpperBound}, each annotation is widened against the annotation of {@code
+     * previous} in the same hierarchy using {@link QualifierHierarchy#widenedUpperBound}, so the
+     * result may be wider than the least upper bound.
+     *
+     * @param previous the value computed by an earlier iteration
+     * @return an upper bound of this value and {@code previous}
+     */
+    public V widenUpperBound(/*@Nullable*/ V previous) {
+        V lub = leastUpperBound(previous);
+        if (previous == null) {
+            return lub;
+        }
+        QualifierHierarchy hierarchy = analysis.getTypeFactory().getQualifierHierarchy();
+        Set<AnnotationMirror> widenedSet = AnnotationUtils.createAnnotationSet();
+        boolean widened = false;
+        for (AnnotationMirror anno : lub.getAnnotations()) {
+            AnnotationMirror previousAnno =
+                    hierarchy.findAnnotationInSameHierarchy(previous.getAnnotations(), anno);
+            AnnotationMirror widenedAnno =
+                    previousAnno == null ? anno : hierarchy.widenedUpperBound(anno, previousAnno);
+            widened |= !AnnotationUtils.areSame(anno, widenedAnno);
+            widenedSet.add(widenedAnno);
+        }
+        return widened ? analysis.createAbstractValue(widenedSet, lub.getUnderlyingType()) : lub;
+    }
+
     class LubVisitor extends AnnotationSetAndTypeMirrorVisitor {
 
         Set<AnnotationMirror> lubSet;
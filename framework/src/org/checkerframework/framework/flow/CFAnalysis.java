@@ -23,6 +23,14 @@ public class CFAnalysis extends CFAbstractAnalysis<CFValue, CFStore, CFTransfer>
         super(checker, factory, fieldValues);
     }
 
+    public CFAnalysis(
+            BaseTypeChecker checker,
+            GenericAnnotatedTypeFactory<CFValue, CFStore, CFTransfer, CFAnalysis> factory,
+            List<Pair<VariableElement, CFValue>> fieldValues,
+            int maxCountBeforeWidening) {
+        super(checker, factory, fieldValues, maxCountBeforeWidening);
+    }
+
     @Override
     public CFStore createEmptyStore(boolean sequentialSemantics) {
         return new CFStore(this, sequentialSemantics);
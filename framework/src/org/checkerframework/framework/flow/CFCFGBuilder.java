@@ -8,7 +8,11 @@ import com.sun.source.tree.MethodInvocationTree;
 import com.sun.source.tree.MethodTree;
 import com.sun.source.tree.Tree;
 import com.sun.source.tree.VariableTree;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.VariableElement;
@@ -20,6 +24,7 @@ import org.checkerframework.framework.source.SourceChecker;
 import org.checkerframework.framework.type.AnnotatedTypeFactory;
 import org.checkerframework.framework.type.AnnotatedTypeMirror;
 import org.checkerframework.javacutil.ErrorReporter;
+import org.checkerframework.javacutil.Pair;
 import org.checkerframework.javacutil.TreeUtils;
 
 /**
@@ -36,6 +41,21 @@ public class CFCFGBuilder extends CFGBuilder {
     /** Type factory to provide types used during CFG building. */
     protected final AnnotatedTypeFactory factory;
 
+    /**
+     * The trees created during the last run of the builder, with the method or class that encloses
+     * them.
+     */
+    protected final List<Pair<Tree, Element>> artificialTrees = new ArrayList<>();
+
+    /**
+     * The methods whose {@link org.checkerframework.dataflow.qual.TerminatesExecution} annotation
+     * was looked up during the last run of the builder, with the result of the lookup.
+     */
+    protected final Map<Element, Boolean> terminatesExecutionLookups = new HashMap<>();
+
+    /** Whether the last CFG built is the same for every checker. */
+    protected boolean checkerIndependent;
+
     public CFCFGBuilder(BaseTypeChecker checker, AnnotatedTypeFactory factory) {
         super(
                 checker.hasOption("assumeAssertionsAreEnabled"),
@@ -54,6 +74,9 @@ public class CFCFGBuilder extends CFGBuilder {
             CompilationUnitTree root, ProcessingEnvironment env, UnderlyingAST underlyingAST) {
         declaredClasses.clear();
         declaredLambdas.clear();
+        artificialTrees.clear();
+        terminatesExecutionLookups.clear();
+        checkerIndependent = true;
 
         CFTreeBuilder builder = new CFTreeBuilder(env);
         PhaseOneResult phase1result =
@@ -64,6 +87,38 @@ public class CFCFGBuilder extends CFGBuilder {
         return phase3result;
     }
 
+    /**
+     * Returns whether the last CFG built by this builder would be the same if it were built for
+     * another checker. It is not if it contains a variable whose type is computed by the type
+     * factory, or an assert statement, which may be assumed to hold for some checkers only.
+     *
+     * <p>Whether a method terminates execution also depends on the checker, because its stub files
+     * may add {@link org.checkerframework.dataflow.qual.TerminatesExecution} annotations. These
+     * lookups do not make the CFG checker-dependent; instead, another checker may only reuse the
+     * CFG if it agrees on them, see {@link #getTerminatesExecutionLookups()}.
+     *
+     * @see CFGCache
+     */
+    public boolean isCheckerIndependent() {
+        return checkerIndependent;
+    }
+
+    /**
+     * Returns the methods whose {@link org.checkerframework.dataflow.qual.TerminatesExecution}
+     * annotation was looked up during the last run of the builder, with the result of the lookup.
+     */
+    public Map<Element, Boolean> getTerminatesExecutionLookups() {
+        return terminatesExecutionLookups;
+    }
+
+    /**
+     * Returns the trees created during the last run of the builder, with the method or class that
+     * encloses them.
+     */
+    public List<Pair<Tree, Element>> getArtificialTrees() {
+        return artificialTrees;
+    }
+
     /*
      * Given a SourceChecker and an AssertTree, returns whether the AssertTree
      * uses an @AssumeAssertion string that is relevant to the SourceChecker.
@@ -89,12 +144,20 @@ public class CFCFGBuilder extends CFGBuilder {
 
         @Override
         protected boolean assumeAssertionsEnabledFor(AssertTree tree) {
+            checkerIndependent = false;
             if (assumeAssertionsActivatedForAssertTree(checker, tree)) {
                 return true;
             }
             return super.assumeAssertionsEnabledFor(tree);
         }
 
+        @Override
+        protected boolean terminatesExecution(Element methodElement) {
+            boolean terminatesExecution = super.terminatesExecution(methodElement);
+            terminatesExecutionLookups.put(methodElement, terminatesExecution);
+            return terminatesExecution;
+        }
+
         @Override
         public void handleArtificialTree(Tree tree) {
             // Record the method or class that encloses the newly created tree.
@@ -102,11 +165,13 @@ public class CFCFGBuilder extends CFGBuilder {
             if (enclosingMethod != null) {
                 Element methodElement = TreeUtils.elementFromDeclaration(enclosingMethod);
                 factory.setPathHack(tree, methodElement);
+                artificialTrees.add(Pair.of(tree, methodElement));
             } else {
                 ClassTree enclosingClass = TreeUtils.enclosingClass(getCurrentPath());
                 if (enclosingClass != null) {
                     Element classElement = TreeUtils.elementFromDeclaration(enclosingClass);
                     factory.setPathHack(tree, classElement);
+                    artificialTrees.add(Pair.of(tree, classElement));
                 }
             }
         }
@@ -114,6 +179,7 @@ public class CFCFGBuilder extends CFGBuilder {
         @Override
         protected VariableTree createEnhancedForLoopIteratorVariable(
                 MethodInvocationTree iteratorCall, VariableElement variableElement) {
+            checkerIndependent = false;
             // We do not want to cache flow-insensitive types
             // retrieved during CFG building.
             boolean oldShouldCache = factory.shouldCache;
@@ -138,6 +204,7 @@ public class CFCFGBuilder extends CFGBuilder {
         @Override
         protected VariableTree createEnhancedForLoopArrayVariable(
                 ExpressionTree expression, VariableElement variableElement) {
+            checkerIndependent = false;
             // We do not want to cache flow-insensitive types
             // retrieved during CFG building.
             boolean oldShouldCache = factory.shouldCache;
@@ -0,0 +1,137 @@
+package org.checkerframework.framework.flow;
+
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.LambdaExpressionTree;
+import com.sun.source.tree.Tree;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.lang.model.element.Element;
+import org.checkerframework.dataflow.cfg.ControlFlowGraph;
+import org.checkerframework.dataflow.qual.TerminatesExecution;
+import org.checkerframework.framework.type.AnnotatedTypeFactory;
+import org.checkerframework.javacutil.Pair;
+
+/**
+ * Control flow graphs that are shared by the type factories of a checker and its subcheckers, so
+ * that code is translated to a CFG once rather than once per checker. Only the dataflow analysis
+ * of a shared CFG differs between the checkers.
+ *
+ * <p>A CFG is only shared if building it did not depend on the checker, see {@link
+ * CFCFGBuilder#isCheckerIndependent()}, and a checker only reuses a CFG if it agrees on which of the
+ * called methods terminate execution.
+ *
+ * @see org.checkerframework.common.basetype.BaseTypeChecker#getCFGCache()
+ */
+public class CFGCache {
+
+    /** The cached CFGs, keyed by the code they represent. */
+    private final Map<Tree, Entry> cfgs = new IdentityHashMap<>();
+
+    /** A CFG and the information gathered while building it. */
+    public static class Entry {
+        /** The control flow graph. */
+        public final ControlFlowGraph cfg;
+
+        /** The classes declared in the code of the CFG. */
+        public final List<ClassTree> declaredClasses;
+
+        /** The lambdas declared in the code of the CFG. */
+        public final List<LambdaExpressionTree> declaredLambdas;
+
+        /** The trees created while building the CFG, with their enclosing method or class. */
+        private final List<Pair<Tree, Element>> artificialTrees;
+
+        /**
+         * The methods whose {@link TerminatesExecution} annotation was looked up while building the
+         * CFG, with the result of the lookup.
+         */
+        private final Map<Element, Boolean> terminatesExecutionLookups;
+
+        private Entry(
+                ControlFlowGraph cfg,
+                List<ClassTree> declaredClasses,
+                List<LambdaExpressionTree> declaredLambdas,
+                List<Pair<Tree, Element>> artificialTrees,
+                Map<Element, Boolean> terminatesExecutionLookups) {
+            this.cfg = cfg;
+            this.declaredClasses = declaredClasses;
+            this.declaredLambdas = declaredLambdas;
+            this.artificialTrees = artificialTrees;
+            this.terminatesExecutionLookups = terminatesExecutionLookups;
+        }
+
+        /**
+         * Returns whether {@code factory} agrees with the factory that built the CFG on which of
+         * the called methods terminate execution.
+         */
+        private boolean isValidFor(AnnotatedTypeFactory factory) {
+            for (Map.Entry<Element, Boolean> lookup : terminatesExecutionLookups.entrySet()) {
+                boolean terminatesExecution =
+                        factory.getDeclAnnotation(lookup.getKey(), TerminatesExecution.class)
+                                != null;
+                if (terminatesExecution != lookup.getValue()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Registers the trees created while building the CFG with {@code factory}, as the builder
+         * did for the factory that built the CFG. Must be called before {@code factory} analyzes
+         * the CFG.
+         *
+         * @see AnnotatedTypeFactory#setPathHack(Tree, Element)
+         */
+        public void registerArtificialTrees(AnnotatedTypeFactory factory) {
+            for (Pair<Tree, Element> artificialTree : artificialTrees) {
+                factory.setPathHack(artificialTree.first, artificialTree.second);
+            }
+        }
+    }
+
+    /**
+     * Returns the cached CFG of {@code code}, or null if there is none or if {@code factory} would
+     * build a different CFG, because it disagrees on which of the called methods terminate
+     * execution.
+     *
+     * @param code the code of an {@link org.checkerframework.dataflow.cfg.UnderlyingAST}
+     * @param factory the type factory that is about to analyze {@code code}
+     */
+    public Entry get(Tree code, AnnotatedTypeFactory factory) {
+        Entry entry = cfgs.get(code);
+        if (entry == null || !entry.isValidFor(factory)) {
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Caches the CFG that {@code builder} just built for {@code code}, unless building it depended
+     * on the checker.
+     *
+     * @param code the code of an {@link org.checkerframework.dataflow.cfg.UnderlyingAST}
+     * @param cfg the CFG that {@code builder} built for {@code code}
+     * @param builder the builder that built {@code cfg}, before it is run again
+     */
+    public void put(Tree code, ControlFlowGraph cfg, CFCFGBuilder builder) {
+        if (builder.isCheckerIndependent()) {
+            cfgs.put(
+                    code,
+                    new Entry(
+                            cfg,
+                            new ArrayList<>(builder.getDeclaredClasses()),
+                            new ArrayList<>(builder.getDeclaredLambdas()),
+                            new ArrayList<>(builder.getArtificialTrees()),
+                            new HashMap<>(builder.getTerminatesExecutionLookups())));
+        }
+    }
+
+    /** Removes all cached CFGs. */
+    public void clear() {
+        cfgs.clear();
+    }
+}
@@ -12,6 +12,7 @@ import com.sun.source.tree.Tree;
 import com.sun.source.tree.VariableTree;
 import com.sun.source.util.SourcePositions;
 import com.sun.source.util.TreePath;
+import com.sun.source.util.TreeScanner;
 import com.sun.source.util.Trees;
 import com.sun.tools.javac.processing.JavacProcessingEnvironment;
 import com.sun.tools.javac.util.Context;
@@ -26,6 +27,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -305,7 +307,12 @@ import org.checkerframework.javacutil.TreeUtils;
     "atfCacheSize",
 
     // Sets AnnotatedTypeFactory shouldCache to false
-    "atfDoNotCache"
+    "atfDoNotCache",
+
+    // Write the CFG size, dataflow iterations, and time of each method to a CSV file
+    // org.checkerframework.framework.util.FlowProfiler
+    // -AflowProfile=profile.csv
+    "flowProfile"
 })
 public abstract class SourceChecker extends AbstractTypeProcessor
         implements ErrorHandler, CFContext, OptionConfiguration {
@@ -323,6 +330,13 @@ public abstract class SourceChecker extends AbstractTypeProcessor
     /** Maps error keys to localized/custom error messages. */
     protected Properties messages;
 
+    /**
+     * Maps the keys of the messages reported so far to their format strings, including the
+     * "[key] " prefix. The format string only depends on the key and on the command-line options,
+     * so it is computed once per key. Not used with -Adetailedmsgtext.
+     */
+    private final Map<String, String> messageFormats = new HashMap<>();
+
     /** Used to report error messages and warnings via the compiler. */
     protected Messager messager;
 
@@ -378,6 +392,25 @@ public abstract class SourceChecker extends AbstractTypeProcessor
      */
     private Pattern onlyDefsPattern;
 
+    /**
+     * True if -AskipUses or -AonlyUses is given, so that some uses may be skipped. Null until the
+     * patterns are read.
+     */
+    private Boolean hasUsesPatterns;
+
+    /**
+     * True if -AskipDefs or -AonlyDefs is given, so that some definitions may be skipped. Null
+     * until the patterns are read.
+     */
+    private Boolean hasDefsPatterns;
+
+    /**
+     * The results of {@link #shouldSkipUses(Element)}, by the class that encloses the element.
+     * Matching the patterns requires the fully-qualified name of the class, which is computed on
+     * each call to {@code toString}.
+     */
+    private final Map<TypeElement, Boolean> shouldSkipUsesCache = new HashMap<>();
+
     /** The supported lint options */
     private Set<String> supportedLints;
 
@@ -539,16 +572,31 @@ public abstract class SourceChecker extends AbstractTypeProcessor
         return this.messages;
     }
 
+    /**
+     * The default skip pattern. It is an illegal Java identifier substring so that it won't match
+     * anything. Note that AnnotatedType's toString output format contains characters such as
+     * "():{}".
+     */
+    private static final String SKIP_NOTHING_PATTERN = "\\]'\"\\]";
+
+    /** The default only pattern, which matches everything. */
+    private static final String ONLY_ANYTHING_PATTERN = ".";
+
     private Pattern getSkipPattern(String patternName, Map<String, String> options) {
-        // Default is an illegal Java identifier substring
-        // so that it won't match anything.
-        // Note that AnnotatedType's toString output format contains characters such as "():{}".
-        return getPattern(patternName, options, "\\]'\"\\]");
+        return getPattern(patternName, options, SKIP_NOTHING_PATTERN);
     }
 
     private Pattern getOnlyPattern(String patternName, Map<String, String> options) {
-        // default matches everything
-        return getPattern(patternName, options, ".");
+        return getPattern(patternName, options, ONLY_ANYTHING_PATTERN);
+    }
+
+    /**
+     * Returns true if the given skip and only patterns are the defaults, so that no class is
+     * skipped.
+     */
+    private static boolean areDefaultPatterns(Pattern skipPattern, Pattern onlyPattern) {
+        return skipPattern.pattern().equals(SKIP_NOTHING_PATTERN)
+                && onlyPattern.pattern().equals(ONLY_ANYTHING_PATTERN);
     }
 
     private Pattern getPattern(
@@ -897,6 +945,10 @@ public abstract class SourceChecker extends AbstractTypeProcessor
      * Type-check the code with Java specifications and then runs the Checker Rule Checking visitor
      * on the processed source.
      *
+     * <p>Type elements are processed one at a time on javac's thread. Checking them concurrently is
+     * not supported: the compiler's symbol completion, {@link Log} and type utilities are not
+     * thread-safe, and the checker's factories and visitor share per-compilation-unit state.
+     *
      * @see Processor#process(Set, RoundEnvironment)
      */
     @Override
@@ -939,6 +991,7 @@ public abstract class SourceChecker extends AbstractTypeProcessor
         }
         if (p.getCompilationUnit() != currentRoot) {
             currentRoot = p.getCompilationUnit();
+            treePathIndex = null;
             visitor.setRoot(currentRoot);
         }
 
@@ -1061,7 +1114,7 @@ public abstract class SourceChecker extends AbstractTypeProcessor
             return;
         }
 
-        final String defaultFormat = String.format("(%s)", msgKey);
+        final String defaultFormat = "(" + msgKey + ")";
         String fmtString;
         if (this.processingEnv.getOptions() != null /*nnbug*/
                 && this.processingEnv.getOptions().containsKey("nomsgtext")) {
@@ -1116,25 +1169,37 @@ public abstract class SourceChecker extends AbstractTypeProcessor
             fmtString = sb.toString();
 
         } else {
-            final String suppressing;
-            if (this.processingEnv.getOptions().containsKey("showSuppressWarningKeys")) {
-                suppressing = String.format("[%s:%s] ", this.getSuppressWarningsKeys(), msgKey);
-            } else {
-                suppressing = String.format("[%s] ", msgKey);
+            fmtString = messageFormats.get(msgKey);
+            if (fmtString == null) {
+                final String suppressing;
+                if (this.processingEnv.getOptions().containsKey("showSuppressWarningKeys")) {
+                    suppressing = "[" + this.getSuppressWarningsKeys() + ":" + msgKey + "] ";
+                } else {
+                    suppressing = "[" + msgKey + "] ";
+                }
+                fmtString = suppressing + fullMessageOf(msgKey, defaultFormat);
+                messageFormats.put(msgKey, fmtString);
             }
-            fmtString = suppressing + fullMessageOf(msgKey, defaultFormat);
         }
         String messageText;
-        try {
-            messageText = String.format(fmtString, args);
-        } catch (Exception e) {
-            messageText =
-                    "Invalid format string: \"" + fmtString + "\" args: " + Arrays.toString(args);
+        if (fmtString.indexOf('%') == -1) {
+            // Nothing to interpolate.
+            messageText = fmtString;
+        } else {
+            try {
+                messageText = String.format(fmtString, args);
+            } catch (Exception e) {
+                messageText =
+                        "Invalid format string: \""
+                                + fmtString
+                                + "\" args: "
+                                + Arrays.toString(args);
+            }
         }
 
         if (LINE_SEPARATOR != "\n") { // interned
             // Replace '\n' with the proper line separator
-            messageText = messageText.replaceAll("\n", LINE_SEPARATOR);
+            messageText = messageText.replace("\n", LINE_SEPARATOR);
         }
 
         if (source instanceof Element) {
@@ -1297,7 +1362,29 @@ public abstract class SourceChecker extends AbstractTypeProcessor
             return false;
         }
 
-        /*@Nullable*/ TreePath path = trees.getPath(this.currentRoot, tree);
+        if (treePathIndex == null) {
+            treePathIndex = indexTreePaths(currentRoot);
+        }
+        return shouldSuppressWarnings(treePathIndex.get(tree), errKey);
+    }
+
+    /**
+     * Determines whether all the warnings pertaining to the leaf of a given path should be
+     * suppressed, like {@link #shouldSuppressWarnings(Tree, String)} but without computing the path.
+     *
+     * @param path the path to the tree that might be a source of a warning, or null if the tree is
+     *     not in the current compilation unit
+     * @param errKey the error key the checker is emitting
+     * @return true if no warning should be emitted for the leaf of {@code path}
+     */
+    public boolean shouldSuppressWarnings(/*@Nullable*/ TreePath path, String errKey) {
+
+        // Don't suppress warnings if this checker provides no key to do so.
+        Collection<String> checkerKeys = this.getSuppressWarningsKeys();
+        if (checkerKeys.isEmpty()) {
+            return false;
+        }
+
         if (path == null) {
             return false;
         }
@@ -1348,6 +1435,46 @@ public abstract class SourceChecker extends AbstractTypeProcessor
         return false;
     }
 
+    /**
+     * The paths of all trees in {@link #currentRoot}, or null if they have not been computed yet.
+     * Computing the path of a single tree requires scanning the compilation unit, so when a
+     * compilation unit reports many warnings, it is cheaper to index all paths at once.
+     */
+    private /*@Nullable*/ Map<Tree, TreePath> treePathIndex;
+
+    /**
+     * Computes the paths of all trees in {@code root}.
+     *
+     * @param root a compilation unit
+     * @return a map from every tree in {@code root} to its path, using reference equality
+     */
+    private static Map<Tree, TreePath> indexTreePaths(CompilationUnitTree root) {
+        final Map<Tree, TreePath> index = new IdentityHashMap<>();
+        new TreeScanner<Void, Void>() {
+            private TreePath path = null;
+
+            @Override
+            public Void scan(Tree tree, Void p) {
+                if (tree == null) {
+                    return null;
+                }
+                TreePath prev = path;
+                path = new TreePath(path, tree);
+                // Keep the first path of a tree that occurs more than once, as TreePath.getPath
+                // does.
+                if (!index.containsKey(tree)) {
+                    index.put(tree, path);
+                }
+                try {
+                    return super.scan(tree, p);
+                } finally {
+                    path = prev;
+                }
+            }
+        }.scan(root, null);
+        return index;
+    }
+
     /**
      * Should unchecked code defaults be used for the kind of code indicated by the parameter
      *
@@ -1410,6 +1537,46 @@ public abstract class SourceChecker extends AbstractTypeProcessor
         return shouldSuppressWarnings(elt.getEnclosingElement(), errKey);
     }
 
+    /**
+     * Determines whether all warnings of this checker within the declaration {@code elt} are
+     * suppressed, because {@code elt} or an enclosing element has a {@literal @}SuppressWarnings
+     * annotation with one of the keys returned by {@link #getSuppressWarningsKeys}.
+     *
+     * <p>Unlike {@link #shouldSuppressWarnings(Element, String)}, this ignores values that only
+     * suppress some error keys, the {@code -AsuppressWarnings} command-line argument, and the
+     * defaults for unchecked code. It is therefore safe to skip checking {@code elt} entirely when
+     * it returns true.
+     *
+     * @param elt a declaration
+     * @return true if every warning of this checker within {@code elt} is suppressed by a
+     *     {@literal @}SuppressWarnings annotation
+     */
+    public boolean suppressesAllWarnings(/*@Nullable*/ Element elt) {
+        if (elt == null) {
+            return false;
+        }
+
+        SuppressWarnings anno = elt.getAnnotation(SuppressWarnings.class);
+        if (anno != null) {
+            Collection<String> checkerSwKeys = this.getSuppressWarningsKeys();
+            for (String suppressWarningValue : anno.value()) {
+                for (String checkerKey : checkerSwKeys) {
+                    if (suppressWarningValue.equalsIgnoreCase(checkerKey)) {
+                        return true;
+                    }
+                }
+            }
+        }
+
+        if (isAnnotatedForThisCheckerOrUpstreamChecker(elt)) {
+            // Warnings within elt are not suppressed by the enclosing elements,
+            // see shouldSuppressWarnings(Element, String).
+            return false;
+        }
+
+        return suppressesAllWarnings(elt.getEnclosingElement());
+    }
+
     private boolean isAnnotatedForThisCheckerOrUpstreamChecker(/*@Nullable*/ Element elt) {
 
         if (elt == null || !useUncheckedCodeDefault("source")) {
@@ -1858,12 +2025,16 @@ public abstract class SourceChecker extends AbstractTypeProcessor
      * @return true iff the enclosing class of element should be skipped
      */
     public final boolean shouldSkipUses(Element element) {
-        if (element == null) {
+        if (element == null || !hasUsesPatterns()) {
             return false;
         }
         TypeElement typeElement = ElementUtils.enclosingClass(element);
-        String name = typeElement.toString();
-        return shouldSkipUses(name);
+        Boolean result = shouldSkipUsesCache.get(typeElement);
+        if (result == null) {
+            result = shouldSkipUses(typeElement.toString());
+            shouldSkipUsesCache.put(typeElement, result);
+        }
+        return result;
     }
 
     /**
@@ -1887,16 +2058,23 @@ public abstract class SourceChecker extends AbstractTypeProcessor
         //     System.out.println("  " + stea[i]);
         // }
         // System.out.println();
-        if (skipUsesPattern == null) {
-            skipUsesPattern = getSkipUsesPattern(getOptions());
-        }
-        if (onlyUsesPattern == null) {
-            onlyUsesPattern = getOnlyUsesPattern(getOptions());
+        if (!hasUsesPatterns()) {
+            return false;
         }
         return skipUsesPattern.matcher(typeName).find()
                 || !onlyUsesPattern.matcher(typeName).find();
     }
 
+    /** Reads the -AskipUses and -AonlyUses patterns, and returns true if either is given. */
+    private boolean hasUsesPatterns() {
+        if (hasUsesPatterns == null) {
+            skipUsesPattern = getSkipUsesPattern(getOptions());
+            onlyUsesPattern = getOnlyUsesPattern(getOptions());
+            hasUsesPatterns = !areDefaultPatterns(skipUsesPattern, onlyUsesPattern);
+        }
+        return hasUsesPatterns;
+    }
+
     /**
      * Tests whether the class definition should not be checked because it matches the {@code
      * checker.skipDefs} property.
@@ -1905,6 +2083,9 @@ public abstract class SourceChecker extends AbstractTypeProcessor
      * @return true if checker should not test node
      */
     public final boolean shouldSkipDefs(ClassTree node) {
+        if (!hasDefsPatterns()) {
+            return false;
+        }
         String qualifiedName = InternalUtils.typeOf(node).toString();
         // System.out.printf("shouldSkipDefs(%s) %s%nskipDefs %s%nonlyDefs %s%nresult %s%n%n",
         //                   node,
@@ -1913,15 +2094,18 @@ public abstract class SourceChecker extends AbstractTypeProcessor
         //                   onlyDefsPattern.matcher(qualifiedName).find(),
         //                   (skipDefsPattern.matcher(qualifiedName).find()
         //                    || ! onlyDefsPattern.matcher(qualifiedName).find()));
-        if (skipDefsPattern == null) {
+        return skipDefsPattern.matcher(qualifiedName).find()
+                || !onlyDefsPattern.matcher(qualifiedName).find();
+    }
+
+    /** Reads the -AskipDefs and -AonlyDefs patterns, and returns true if either is given. */
+    private boolean hasDefsPatterns() {
+        if (hasDefsPatterns == null) {
             skipDefsPattern = getSkipDefsPattern(getOptions());
-        }
-        if (onlyDefsPattern == null) {
             onlyDefsPattern = getOnlyDefsPattern(getOptions());
+            hasDefsPatterns = !areDefaultPatterns(skipDefsPattern, onlyDefsPattern);
         }
-
-        return skipDefsPattern.matcher(qualifiedName).find()
-                || !onlyDefsPattern.matcher(qualifiedName).find();
+        return hasDefsPatterns;
     }
 
     /**
@@ -4,10 +4,16 @@ package org.checkerframework.framework.stub;
 import org.checkerframework.checker.nullness.qual.*;
 */
 
+import com.sun.tools.javac.processing.JavacProcessingEnvironment;
+import com.sun.tools.javac.util.Context;
+import java.io.IOException;
 import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -35,6 +41,7 @@ import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedWildcard
 import org.checkerframework.framework.type.visitor.AnnotatedTypeMerger;
 import org.checkerframework.framework.util.AnnotationBuilder;
 import org.checkerframework.javacutil.AnnotationUtils;
+import org.checkerframework.javacutil.CollectionUtils;
 import org.checkerframework.javacutil.ElementUtils;
 import org.checkerframework.javacutil.ErrorReporter;
 import org.checkerframework.javacutil.Pair;
@@ -119,12 +126,38 @@ public class StubParser {
     /** Annotation to added to every method and constructor in the stub file. */
     private final AnnotationMirror fromStubFile;
 
+    /**
+     * The members of the type declarations in stub files, resolved to elements. Resolving members
+     * does not depend on the type system, and stub files on the class path are parsed only once, so
+     * this map is shared by all checkers and subcheckers of a compilation. It is stored in the
+     * compiler's context because elements are specific to a compilation.
+     */
+    private final Map<TypeDeclaration, Map<Element, BodyDeclaration>> resolvedMembers;
+
+    /** The key of {@link #resolvedMembers} in the compiler's context. */
+    private static final Context.Key<Map<TypeDeclaration, Map<Element, BodyDeclaration>>>
+            resolvedMembersKey =
+                    new Context.Key<Map<TypeDeclaration, Map<Element, BodyDeclaration>>>();
+
     /**
      * List of AnnotatedTypeMirrors for class or method type parameters that are in scope of the
      * elements currently parsed.
      */
     private final List<AnnotatedTypeVariable> typeParameters = new ArrayList<>();
 
+    /** The maximum number of parsed stub resources to keep. */
+    private static final int STUB_RESOURCE_CACHE_SIZE = 64;
+
+    /**
+     * Stub files that are resources on the class path, parsed. The key is the external form of
+     * the URL of the resource together with its last-modified time and size, so a resource that
+     * changes while the JVM runs, e.g. in a long-running build daemon, is parsed again. Each
+     * unchanged resource is parsed once, even if it is read by several checkers, subcheckers or
+     * compilations.
+     */
+    private static final Map<String, IndexUnit> parsedStubResources =
+            CollectionUtils.createLRUCache(STUB_RESOURCE_CACHE_SIZE);
+
     /**
      * @param filename name of stub file
      * @param inputStream of stub file to parse
@@ -136,6 +169,28 @@ public class StubParser {
             InputStream inputStream,
             AnnotatedTypeFactory factory,
             ProcessingEnvironment env) {
+        this(filename, parseStubFile(filename, inputStream), factory, env);
+    }
+
+    /**
+     * Creates a parser for a stub file that is a resource on the class path, such as {@code
+     * jdk.astub}. The resource is parsed only the first time it is used in this JVM.
+     *
+     * @param filename name of stub file
+     * @param resource URL of the stub file
+     * @param factory AnnotatedtypeFactory to use
+     * @param env ProcessingEnviroment to use
+     */
+    public StubParser(
+            String filename, URL resource, AnnotatedTypeFactory factory, ProcessingEnvironment env) {
+        this(filename, parseStubResource(filename, resource), factory, env);
+    }
+
+    private StubParser(
+            String filename,
+            IndexUnit index,
+            AnnotatedTypeFactory factory,
+            ProcessingEnvironment env) {
         this.filename = filename;
         this.atypeFactory = factory;
         this.processingEnv = env;
@@ -151,15 +206,7 @@ public class StubParser {
         if (debugStubParser) {
             stubDebug(String.format("parsing stub file %s%n", filename));
         }
-        IndexUnit parsedindex;
-        try {
-            parsedindex = JavaParser.parse(inputStream);
-        } catch (Exception e) {
-            ErrorReporter.errorAbort(
-                    "StubParser: exception from JavaParser.parse for file " + filename, e);
-            parsedindex = null; // dead code, but needed for def. assignment checks
-        }
-        this.index = parsedindex;
+        this.index = index;
 
         // getSupportedAnnotations also sets imports. This should be refactored to be nicer.
         supportedAnnotations = getSupportedAnnotations();
@@ -173,6 +220,64 @@ public class StubParser {
         nexprcache = new HashMap<NameExpr, VariableElement>();
 
         this.fromStubFile = AnnotationUtils.fromClass(elements, FromStubFile.class);
+
+        Context context = ((JavacProcessingEnvironment) env).getContext();
+        Map<TypeDeclaration, Map<Element, BodyDeclaration>> members =
+                context.get(resolvedMembersKey);
+        if (members == null) {
+            // The AST nodes of stub files do not implement equals and hashCode efficiently.
+            members = new IdentityHashMap<TypeDeclaration, Map<Element, BodyDeclaration>>();
+            context.put(resolvedMembersKey, members);
+        }
+        this.resolvedMembers = members;
+    }
+
+    /** Parse the stub file read from {@code inputStream}. */
+    private static IndexUnit parseStubFile(String filename, InputStream inputStream) {
+        try {
+            return JavaParser.parse(inputStream);
+        } catch (Exception e) {
+            ErrorReporter.errorAbort(
+                    "StubParser: exception from JavaParser.parse for file " + filename, e);
+            return null; // dead code
+        }
+    }
+
+    /**
+     * Parse the stub file at {@code resource}, or return the result of parsing it earlier. The
+     * returned AST is shared and must not be modified.
+     */
+    private static synchronized IndexUnit parseStubResource(String filename, URL resource) {
+        String key;
+        InputStream inputStream;
+        try {
+            URLConnection connection = resource.openConnection();
+            key =
+                    resource.toExternalForm()
+                            + " "
+                            + connection.getLastModified()
+                            + " "
+                            + connection.getContentLengthLong();
+            // Reading the metadata may already have opened the stream, so always close it.
+            inputStream = connection.getInputStream();
+        } catch (IOException e) {
+            ErrorReporter.errorAbort("StubParser: could not read stub file " + filename, e);
+            return null; // dead code
+        }
+        try {
+            IndexUnit index = parsedStubResources.get(key);
+            if (index == null) {
+                index = parseStubFile(filename, inputStream);
+                parsedStubResources.put(key, index);
+            }
+            return index;
+        } finally {
+            try {
+                inputStream.close();
+            } catch (IOException e) {
+                // The stub file has been read; ignore the failure to close it.
+            }
+        }
     }
 
     /** All annotations defined in the package. Keys are simple names. */
@@ -880,8 +985,22 @@ public class StubParser {
 
     private static final Set<String> nestedClassWarnings = new HashSet<String>();
 
+    /**
+     * Returns the elements of the members declared in {@code typeDecl}, mapped to their
+     * declarations. The result is shared by all stub parsers of the current compilation.
+     */
     private Map<Element, BodyDeclaration> getMembers(
             TypeElement typeElt, TypeDeclaration typeDecl) {
+        Map<Element, BodyDeclaration> result = resolvedMembers.get(typeDecl);
+        if (result == null) {
+            result = resolveMembers(typeElt, typeDecl);
+            resolvedMembers.put(typeDecl, result);
+        }
+        return result;
+    }
+
+    private Map<Element, BodyDeclaration> resolveMembers(
+            TypeElement typeElt, TypeDeclaration typeDecl) {
         assert (typeElt.getSimpleName().contentEquals(typeDecl.getName())
                         || typeDecl.getName().endsWith("$" + typeElt.getSimpleName().toString()))
                 : String.format("%s  %s", typeElt.getSimpleName(), typeDecl.getName());
@@ -84,9 +84,19 @@ public class AnnotatedTypeCopier
         this(true);
     }
 
+    /**
+     * The expected number of distinct component types in a copied type. Most copied types are
+     * small, so the history map is sized accordingly rather than using IdentityHashMap's default,
+     * which allocates a much larger table.
+     */
+    private static final int EXPECTED_HISTORY_SIZE = 8;
+
     @Override
     public AnnotatedTypeMirror visit(AnnotatedTypeMirror type) {
-        return type.accept(this, new IdentityHashMap<AnnotatedTypeMirror, AnnotatedTypeMirror>());
+        return type.accept(
+                this,
+                new IdentityHashMap<AnnotatedTypeMirror, AnnotatedTypeMirror>(
+                        EXPECTED_HISTORY_SIZE));
     }
 
     @Override
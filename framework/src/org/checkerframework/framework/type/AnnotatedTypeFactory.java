@@ -38,11 +38,14 @@ import java.io.InputStream;
 import java.lang.annotation.Annotation;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Target;
+import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -106,10 +109,10 @@ import org.checkerframework.framework.util.typeinference.DefaultTypeArgumentInfe
 import org.checkerframework.framework.util.typeinference.TypeArgumentInference;
 import org.checkerframework.javacutil.AnnotationProvider;
 import org.checkerframework.javacutil.AnnotationUtils;
-import org.checkerframework.javacutil.CollectionUtils;
 import org.checkerframework.javacutil.ElementUtils;
 import org.checkerframework.javacutil.ErrorReporter;
 import org.checkerframework.javacutil.InternalUtils;
+import org.checkerframework.javacutil.LRUCache;
 import org.checkerframework.javacutil.Pair;
 import org.checkerframework.javacutil.TreeUtils;
 import org.checkerframework.javacutil.TypesUtils;
@@ -288,7 +291,7 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
     private static final int DEFAULT_CACHE_SIZE = 300;
 
     /** Mapping from a Tree to its annotated type; implicits have been applied. */
-    private final Map<Tree, AnnotatedTypeMirror> classAndMethodTreeCache;
+    private final LRUCache<Tree, AnnotatedTypeMirror> classAndMethodTreeCache;
 
     /**
      * Mapping from a Tree to its annotated type; before implicits are applied, just what the
@@ -300,10 +303,20 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
      * Mapping from an Element to its annotated type; before implicits are applied, just what the
      * programmer wrote.
      */
-    private final Map<Element, AnnotatedTypeMirror> elementCache;
+    private final LRUCache<Element, AnnotatedTypeMirror> elementCache;
 
     /** Mapping from an Element to the source Tree of the declaration. */
-    private final Map<Element, Tree> elementToTreeCache;
+    private final LRUCache<Element, Tree> elementToTreeCache;
+
+    /** Mapping from a class to all the supertypes of its annotated type. */
+    private final LRUCache<TypeElement, Set<AnnotatedDeclaredType>> supertypesCache;
+
+    /**
+     * Mapping from a method to the methods that it overrides, keyed by the supertype that declares
+     * them. The supertypes are copied before they are returned to clients.
+     */
+    private final LRUCache<ExecutableElement, Map<AnnotatedDeclaredType, ExecutableElement>>
+            overriddenMethodsCache;
 
     /**
      * Constructs a factory from the given {@link ProcessingEnvironment} instance and syntax tree
@@ -339,15 +352,19 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
         this.shouldCache = !checker.hasOption("atfDoNotCache");
         if (shouldCache) {
             int cacheSize = getCacheSize();
-            this.classAndMethodTreeCache = CollectionUtils.createLRUCache(cacheSize);
-            this.fromTreeCache = CollectionUtils.createLRUCache(cacheSize);
-            this.elementCache = CollectionUtils.createLRUCache(cacheSize);
-            this.elementToTreeCache = CollectionUtils.createLRUCache(cacheSize);
+            this.classAndMethodTreeCache = new LRUCache<>(cacheSize);
+            this.fromTreeCache = new LRUCache<>(cacheSize);
+            this.elementCache = new LRUCache<>(cacheSize);
+            this.elementToTreeCache = new LRUCache<>(cacheSize);
+            this.supertypesCache = new LRUCache<>(cacheSize);
+            this.overriddenMethodsCache = new LRUCache<>(cacheSize);
         } else {
             this.classAndMethodTreeCache = null;
             this.fromTreeCache = null;
             this.elementCache = null;
             this.elementToTreeCache = null;
+            this.supertypesCache = null;
+            this.overriddenMethodsCache = null;
         }
 
         this.typeFormatter = createAnnotatedTypeFormatter();
@@ -506,6 +523,9 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
         elementToTreeCache.clear();
         fromTreeCache.clear();
         classAndMethodTreeCache.clear();
+        // The annotated type of a class declared in the compilation unit is computed from its tree.
+        supertypesCache.clear();
+        overriddenMethodsCache.clear();
 
         // There is no need to clear the following cache, it is limited by cache size and it
         // contents won't change between compilation units.
@@ -883,6 +903,12 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
     /** Mapping from a Tree to its TreePath */
     private final TreePathCacher treePathCache = new TreePathCacher();
 
+    /**
+     * The fully-qualified names of the type qualifiers of the qualifier hierarchy, so that {@link
+     * #isSupportedQualifier} takes constant time. Computed on first use.
+     */
+    private Set<String> supportedQualifierNames;
+
     /**
      * Returns the int supplied to the checker via the atfCacheSize option or the default cache
      * size.
@@ -902,6 +928,30 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
         }
     }
 
+    /**
+     * Print the size and the hit, miss and eviction counts of the caches of this factory. Used by
+     * the resourceStats option.
+     */
+    public void printCacheStatistics() {
+        System.out.println("Cache statistics for " + this.getClass().getSimpleName());
+        if (!shouldCache) {
+            System.out.println("  Caching is disabled");
+            return;
+        }
+        System.out.println("  classAndMethodTreeCache: " + classAndMethodTreeCache.getStatistics());
+        System.out.println(
+                "  fromTreeCache: " + ((LRUCache<?, ?>) fromTreeCache).getStatistics());
+        System.out.println("  elementCache: " + elementCache.getStatistics());
+        System.out.println("  elementToTreeCache: " + elementToTreeCache.getStatistics());
+        System.out.println("  supertypesCache: " + supertypesCache.getStatistics());
+        System.out.println("  overriddenMethodsCache: " + overriddenMethodsCache.getStatistics());
+        if (typeHierarchy instanceof DefaultTypeHierarchy) {
+            System.out.println(
+                    "  subtypeCache: "
+                            + ((DefaultTypeHierarchy) typeHierarchy).getSubtypeCacheStatistics());
+        }
+    }
+
     /**
      * Returns an AnnotatedTypeMirror representing the annotated type of {@code elt}.
      *
@@ -945,8 +995,11 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
             ErrorReporter.errorAbort("AnnotatedTypeFactory.getAnnotatedType: null tree");
             return null; // dead code
         }
-        if (shouldCache && classAndMethodTreeCache.containsKey(tree)) {
-            return classAndMethodTreeCache.get(tree).deepCopy();
+        if (shouldCache) {
+            AnnotatedTypeMirror cached = classAndMethodTreeCache.get(tree);
+            if (cached != null) {
+                return cached.deepCopy();
+            }
         }
 
         AnnotatedTypeMirror type;
@@ -1042,8 +1095,11 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
      * @return AnnotatedTypeMirror of the element with explicitly-written and stub file annotations
      */
     public AnnotatedTypeMirror fromElement(Element elt) {
-        if (shouldCache && elementCache.containsKey(elt)) {
-            return elementCache.get(elt).deepCopy();
+        if (shouldCache) {
+            AnnotatedTypeMirror cached = elementCache.get(elt);
+            if (cached != null) {
+                return cached.deepCopy();
+            }
         }
         if (elt.getKind() == ElementKind.PACKAGE) {
             return toAnnotatedType(elt.asType(), false);
@@ -1150,8 +1206,11 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
                             + tree);
             return null; // dead code
         }
-        if (shouldCache && fromTreeCache.containsKey(tree)) {
-            return fromTreeCache.get(tree).deepCopy();
+        if (shouldCache) {
+            AnnotatedTypeMirror cached = fromTreeCache.get(tree);
+            if (cached != null) {
+                return cached.deepCopy();
+            }
         }
         AnnotatedTypeMirror result = TypeFromTree.fromMember(this, tree);
         annotateInheritedFromClass(result);
@@ -1178,8 +1237,11 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
      * @see TypeFromExpressionVisitor
      */
     private AnnotatedTypeMirror fromExpression(ExpressionTree tree) {
-        if (shouldCache && fromTreeCache.containsKey(tree)) {
-            return fromTreeCache.get(tree).deepCopy();
+        if (shouldCache) {
+            AnnotatedTypeMirror cached = fromTreeCache.get(tree);
+            if (cached != null) {
+                return cached.deepCopy();
+            }
         }
 
         AnnotatedTypeMirror result = TypeFromTree.fromExpression(this, tree);
@@ -1207,8 +1269,11 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
      * @return the (partially) annotated type of the type in the AST
      */
     /*package private*/ final AnnotatedTypeMirror fromTypeTree(Tree tree) {
-        if (shouldCache && fromTreeCache.containsKey(tree)) {
-            return fromTreeCache.get(tree).deepCopy();
+        if (shouldCache) {
+            AnnotatedTypeMirror cached = fromTreeCache.get(tree);
+            if (cached != null) {
+                return cached.deepCopy();
+            }
         }
 
         AnnotatedTypeMirror result = TypeFromTree.fromTypeTree(this, tree);
@@ -1249,6 +1314,72 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
         // Pass.
     }
 
+    /**
+     * Returns the methods that {@code method} overrides, keyed by the supertype of its class that
+     * declares them, as computed by {@link AnnotatedTypes#overriddenMethods(Elements,
+     * ExecutableElement, java.util.Collection)}.
+     *
+     * <p>The supertypes of each class and the overridden methods of each method are cached until
+     * the compilation unit changes, so that the supertypes of a class are only computed once for
+     * all of its methods.
+     *
+     * @param method the overriding method
+     * @return an unmodifiable map from supertypes to the methods that {@code method} overrides
+     */
+    public Map<AnnotatedDeclaredType, ExecutableElement> getOverriddenMethods(
+            ExecutableElement method) {
+        Map<AnnotatedDeclaredType, ExecutableElement> overridden =
+                getOverriddenMethodsUncopied(method);
+        if (!shouldCache || overridden.isEmpty()) {
+            return overridden;
+        }
+
+        // Clients may modify the supertypes, for example by substituting type arguments.
+        Map<AnnotatedDeclaredType, ExecutableElement> result = new LinkedHashMap<>();
+        for (Map.Entry<AnnotatedDeclaredType, ExecutableElement> entry : overridden.entrySet()) {
+            result.put(entry.getKey().deepCopy(), entry.getValue());
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Returns the methods that {@code method} overrides. Unlike {@link #getOverriddenMethods},
+     * this method does not copy the supertypes that declare them, so it should be preferred when
+     * only the methods are needed.
+     *
+     * @param method the overriding method
+     * @return an unmodifiable collection of the methods that {@code method} overrides
+     */
+    public Collection<ExecutableElement> getOverriddenMethodElements(ExecutableElement method) {
+        return Collections.unmodifiableCollection(getOverriddenMethodsUncopied(method).values());
+    }
+
+    /**
+     * Returns the methods that {@code method} overrides, keyed by the supertype that declares them.
+     * If caching is enabled, the result is the cached map, which must not be modified.
+     */
+    private Map<AnnotatedDeclaredType, ExecutableElement> getOverriddenMethodsUncopied(
+            ExecutableElement method) {
+        final TypeElement elem = (TypeElement) method.getEnclosingElement();
+        if (!shouldCache) {
+            return AnnotatedTypes.overriddenMethods(
+                    elements, method, AnnotatedTypes.getSuperTypes(getAnnotatedType(elem)));
+        }
+
+        Map<AnnotatedDeclaredType, ExecutableElement> overridden =
+                overriddenMethodsCache.get(method);
+        if (overridden == null) {
+            Set<AnnotatedDeclaredType> supertypes = supertypesCache.get(elem);
+            if (supertypes == null) {
+                supertypes = AnnotatedTypes.getSuperTypes(getAnnotatedType(elem));
+                supertypesCache.put(elem, supertypes);
+            }
+            overridden = AnnotatedTypes.overriddenMethods(elements, method, supertypes);
+            overriddenMethodsCache.put(method, overridden);
+        }
+        return overridden;
+    }
+
     /**
      * A callback method for the AnnotatedTypeFactory subtypes to customize directSuperTypes().
      * Overriding methods should merely change the annotations on the supertypes, without adding or
@@ -2222,8 +2353,13 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
      */
     public boolean isSupportedQualifier(/*@Nullable*/ AnnotationMirror a) {
         if (a == null) return false;
-        return AnnotationUtils.containsSameIgnoringValues(
-                this.getQualifierHierarchy().getTypeQualifiers(), a);
+        if (supportedQualifierNames == null) {
+            supportedQualifierNames = new HashSet<>();
+            for (AnnotationMirror qual : this.getQualifierHierarchy().getTypeQualifiers()) {
+                supportedQualifierNames.add(AnnotationUtils.annotationName(qual));
+            }
+        }
+        return supportedQualifierNames.contains(AnnotationUtils.annotationName(a));
     }
 
     /** Add the annotation clazz as an alias for the annotation type. */
@@ -2625,19 +2761,18 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
 
         // 1. jdk.astub
         if (!checker.hasOption("ignorejdkastub")) {
-            InputStream in = null;
-            in = checker.getClass().getResourceAsStream("jdk.astub");
-            if (in != null) {
-                StubParser stubParser = new StubParser("jdk.astub", in, this, processingEnv);
+            URL jdkStub = checker.getClass().getResource("jdk.astub");
+            if (jdkStub != null) {
+                StubParser stubParser = new StubParser("jdk.astub", jdkStub, this, processingEnv);
                 stubParser.parse(typesFromStubFiles, declAnnosFromStubFiles);
             }
         }
 
         // 2. flow.astub
         // stub file for type-system independent annotations
-        InputStream input = BaseTypeChecker.class.getResourceAsStream("flow.astub");
-        if (input != null) {
-            StubParser stubParser = new StubParser("flow.astub", input, this, processingEnv);
+        URL flowStub = BaseTypeChecker.class.getResource("flow.astub");
+        if (flowStub != null) {
+            StubParser stubParser = new StubParser("flow.astub", flowStub, this, processingEnv);
             stubParser.parse(typesFromStubFiles, declAnnosFromStubFiles);
         }
 
@@ -2689,10 +2824,10 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
             }
             List<StubResource> stubs = StubUtil.allStubFiles(stubPathFull);
             if (stubs.size() == 0) {
-                InputStream in = null;
-                in = checker.getClass().getResourceAsStream(stubPath);
-                if (in != null) {
-                    StubParser stubParser = new StubParser(stubPath, in, this, processingEnv);
+                URL stubResource = checker.getClass().getResource(stubPath);
+                if (stubResource != null) {
+                    StubParser stubParser =
+                            new StubParser(stubPath, stubResource, this, processingEnv);
                     stubParser.parse(typesFromStubFiles, declAnnosFromStubFiles);
                     // We could handle the stubPath -> continue.
                     continue;
@@ -2873,11 +3008,10 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
      *     the element itself.
      */
     private void inheritOverriddenDeclAnnos(ExecutableElement elt, Set<AnnotationMirror> results) {
-        Map<AnnotatedDeclaredType, ExecutableElement> overriddenMethods =
-                AnnotatedTypes.overriddenMethods(elements, this, elt);
+        Collection<ExecutableElement> overriddenMethods = getOverriddenMethodElements(elt);
 
         if (overriddenMethods != null) {
-            for (ExecutableElement superElt : overriddenMethods.values()) {
+            for (ExecutableElement superElt : overriddenMethods) {
                 Set<AnnotationMirror> superAnnos = getDeclAnnotations(superElt);
 
                 for (AnnotationMirror annotation : superAnnos) {
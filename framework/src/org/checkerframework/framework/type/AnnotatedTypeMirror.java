@@ -248,6 +248,10 @@ public abstract class AnnotatedTypeMirror {
      * @return an annotation from the same hierarchy as p if present
      */
     public AnnotationMirror getAnnotationInHierarchy(AnnotationMirror p) {
+        if (annotations.isEmpty()) {
+            // Most types are unannotated while their defaults are applied.
+            return null;
+        }
         AnnotationMirror aliased = p;
         if (!atypeFactory.isSupportedQualifier(aliased)) {
             aliased = atypeFactory.aliasedAnnotation(p);
@@ -1764,7 +1768,8 @@ public abstract class AnnotatedTypeMirror {
 
         @Override
         public AnnotatedNoType deepCopy(boolean copyAnnotations) {
-            return (AnnotatedNoType) new AnnotatedTypeCopier(copyAnnotations).visit(this);
+            // There are no component types, so a shallow copy is a deep copy.
+            return shallowCopy(copyAnnotations);
         }
 
         @Override
@@ -1806,7 +1811,8 @@ public abstract class AnnotatedTypeMirror {
 
         @Override
         public AnnotatedNullType deepCopy(boolean copyAnnotations) {
-            return (AnnotatedNullType) new AnnotatedTypeCopier(copyAnnotations).visit(this);
+            // There are no component types, so a shallow copy is a deep copy.
+            return shallowCopy(copyAnnotations);
         }
 
         @Override
@@ -1851,7 +1857,8 @@ public abstract class AnnotatedTypeMirror {
 
         @Override
         public AnnotatedPrimitiveType deepCopy(boolean copyAnnotations) {
-            return (AnnotatedPrimitiveType) new AnnotatedTypeCopier(copyAnnotations).visit(this);
+            // There are no component types, so a shallow copy is a deep copy.
+            return shallowCopy(copyAnnotations);
         }
 
         @Override
@@ -31,8 +31,10 @@ import org.checkerframework.framework.util.AnnotatedTypes;
 import org.checkerframework.framework.util.AtmCombo;
 import org.checkerframework.framework.util.PluginUtil;
 import org.checkerframework.framework.util.TypeArgumentMapper;
+import org.checkerframework.javacutil.AnnotationUtils;
 import org.checkerframework.javacutil.ErrorReporter;
 import org.checkerframework.javacutil.InternalUtils;
+import org.checkerframework.javacutil.LRUCache;
 import org.checkerframework.javacutil.Pair;
 import org.checkerframework.javacutil.TypesUtils;
 
@@ -116,6 +118,16 @@ public class DefaultTypeHierarchy extends AbstractAtmComboVisitor<Boolean, Visit
     // passing annotations to qualifierHierarchy.
     protected AnnotationMirror currentTop;
 
+    /** The maximum number of entries in {@link #subtypeCache}. */
+    private static final int SUBTYPE_CACHE_SIZE = 1000;
+
+    /**
+     * The results of top-level subtype checks whose types contain no type variables, wildcards,
+     * intersections, or unions, see {@link SubtypeQuery}. Null if caching is disabled by the
+     * atfDoNotCache option.
+     */
+    private final LRUCache<SubtypeQuery, Boolean> subtypeCache;
+
     public DefaultTypeHierarchy(
             final BaseTypeChecker checker,
             final QualifierHierarchy qualifierHierarchy,
@@ -146,6 +158,11 @@ public class DefaultTypeHierarchy extends AbstractAtmComboVisitor<Boolean, Visit
         this.ignoreRawTypes = ignoreRawTypes;
         this.invariantArrayComponents = invariantArrayComponents;
         this.covariantTypeArgs = covariantTypeArgs;
+
+        this.subtypeCache =
+                checker.hasOption("atfDoNotCache")
+                        ? null
+                        : new LRUCache<SubtypeQuery, Boolean>(SUBTYPE_CACHE_SIZE);
     }
 
     /**
@@ -181,7 +198,170 @@ public class DefaultTypeHierarchy extends AbstractAtmComboVisitor<Boolean, Visit
             final AnnotatedTypeMirror supertype,
             final AnnotationMirror top) {
         currentTop = top;
-        return isSubtype(subtype, supertype, new VisitHistory());
+        if (subtypeCache == null) {
+            return isSubtype(subtype, supertype, new VisitHistory());
+        }
+
+        SubtypeQuery query = SubtypeQuery.create(subtype, supertype, top);
+        if (query == null) {
+            return isSubtype(subtype, supertype, new VisitHistory());
+        }
+        Boolean result = subtypeCache.get(query);
+        if (result == null) {
+            result = isSubtype(subtype, supertype, new VisitHistory());
+            subtypeCache.put(query, result);
+        }
+        return result;
+    }
+
+    /**
+     * Returns a one-line summary of the size and the hit and miss counts of the cache of subtype
+     * checks, or null if caching is disabled. Used by the resourceStats option.
+     *
+     * @return the statistics of the cache of subtype checks, or null
+     */
+    public String getSubtypeCacheStatistics() {
+        return subtypeCache == null ? null : subtypeCache.getStatistics();
+    }
+
+    /**
+     * A top-level subtype check whose result only depends on the structure of its types. That is
+     * the case if neither type contains a type variable, wildcard, intersection, union, raw type,
+     * or inner class of a generic class, so that the check does not depend on the declarations in
+     * scope or on type argument inference.
+     *
+     * <p>A query records the classes, primitive kinds, and primary annotations of the types and
+     * their component types when it is created, so that later changes to the (mutable) types do
+     * not affect it.
+     */
+    private static class SubtypeQuery {
+
+        /**
+         * The structure of the subtype followed by the structure of the supertype. For each
+         * (component) type, in pre-order, the list contains its {@link TypeKind}, its {@link
+         * TypeElement} if it is a declared type, and the list of its primary annotations.
+         */
+        private final List<Object> structure;
+
+        /** The top of the hierarchy in which the check is made. */
+        private final AnnotationMirror top;
+
+        /** The hash code of this query, computed once. */
+        private final int hashCode;
+
+        private SubtypeQuery(List<Object> structure, AnnotationMirror top) {
+            this.structure = structure;
+            this.top = top;
+            int hash = annotationHashCode(top);
+            for (Object component : structure) {
+                if (component instanceof List<?>) {
+                    for (Object anno : (List<?>) component) {
+                        hash = hash * 31 + annotationHashCode((AnnotationMirror) anno);
+                    }
+                } else {
+                    hash = hash * 31 + component.hashCode();
+                }
+            }
+            this.hashCode = hash;
+        }
+
+        /**
+         * Returns the query for checking whether {@code subtype} is a subtype of {@code supertype}
+         * in the hierarchy of {@code top}, or null if the result of the check may depend on more
+         * than the structure of the types.
+         */
+        static SubtypeQuery create(
+                AnnotatedTypeMirror subtype,
+                AnnotatedTypeMirror supertype,
+                AnnotationMirror top) {
+            List<Object> structure = new ArrayList<>();
+            if (!addStructure(subtype, structure) || !addStructure(supertype, structure)) {
+                return null;
+            }
+            return new SubtypeQuery(structure, top);
+        }
+
+        /**
+         * Adds the structure of {@code type} to {@code structure}. Returns false if the type
+         * contains a type for which subtyping does not only depend on the structure.
+         */
+        private static boolean addStructure(AnnotatedTypeMirror type, List<Object> structure) {
+            structure.add(type.getKind());
+            switch (type.getKind()) {
+                case DECLARED:
+                    AnnotatedDeclaredType declaredType = (AnnotatedDeclaredType) type;
+                    if (declaredType.wasRaw()
+                            || declaredType.getUnderlyingType().getEnclosingType().getKind()
+                                    == TypeKind.DECLARED) {
+                        return false;
+                    }
+                    structure.add(declaredType.getUnderlyingType().asElement());
+                    structure.add(new ArrayList<>(type.getAnnotations()));
+                    List<AnnotatedTypeMirror> typeArgs = declaredType.getTypeArguments();
+                    structure.add(typeArgs.size());
+                    for (AnnotatedTypeMirror typeArg : typeArgs) {
+                        if (!addStructure(typeArg, structure)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                case ARRAY:
+                    structure.add(new ArrayList<>(type.getAnnotations()));
+                    return addStructure(
+                            ((AnnotatedArrayType) type).getComponentType(), structure);
+                case NULL:
+                    structure.add(new ArrayList<>(type.getAnnotations()));
+                    return true;
+                default:
+                    if (type.getKind().isPrimitive()) {
+                        structure.add(new ArrayList<>(type.getAnnotations()));
+                        return true;
+                    }
+                    return false;
+            }
+        }
+
+        /** Hashes an annotation by its type, which is consistent with AnnotationUtils.areSame. */
+        private static int annotationHashCode(AnnotationMirror anno) {
+            return anno.getAnnotationType().asElement().hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof SubtypeQuery)) {
+                return false;
+            }
+            SubtypeQuery other = (SubtypeQuery) o;
+            if (hashCode != other.hashCode
+                    || structure.size() != other.structure.size()
+                    || !AnnotationUtils.areSame(top, other.top)) {
+                return false;
+            }
+            for (int i = 0; i < structure.size(); i++) {
+                Object component = structure.get(i);
+                Object otherComponent = other.structure.get(i);
+                if (component instanceof List<?>) {
+                    if (!(otherComponent instanceof List<?>)
+                            || !AnnotationUtils.areSame(
+                                    annotationList(component), annotationList(otherComponent))) {
+                        return false;
+                    }
+                } else if (!component.equals(otherComponent)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static List<AnnotationMirror> annotationList(Object component) {
+            return (List<AnnotationMirror>) component;
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
     }
 
     /**
@@ -44,7 +44,6 @@ import org.checkerframework.common.basetype.BaseTypeChecker;
 import org.checkerframework.dataflow.analysis.AnalysisResult;
 import org.checkerframework.dataflow.analysis.TransferInput;
 import org.checkerframework.dataflow.analysis.TransferResult;
-import org.checkerframework.dataflow.cfg.CFGBuilder;
 import org.checkerframework.dataflow.cfg.CFGVisualizer;
 import org.checkerframework.dataflow.cfg.ControlFlowGraph;
 import org.checkerframework.dataflow.cfg.DOTCFGVisualizer;
@@ -60,6 +59,7 @@ import org.checkerframework.framework.flow.CFAbstractTransfer;
 import org.checkerframework.framework.flow.CFAbstractValue;
 import org.checkerframework.framework.flow.CFAnalysis;
 import org.checkerframework.framework.flow.CFCFGBuilder;
+import org.checkerframework.framework.flow.CFGCache;
 import org.checkerframework.framework.flow.CFStore;
 import org.checkerframework.framework.flow.CFTransfer;
 import org.checkerframework.framework.flow.CFValue;
@@ -85,6 +85,7 @@ import org.checkerframework.framework.type.typeannotator.ListTypeAnnotator;
 import org.checkerframework.framework.type.typeannotator.PropagationTypeAnnotator;
 import org.checkerframework.framework.type.typeannotator.TypeAnnotator;
 import org.checkerframework.framework.util.AnnotatedTypes;
+import org.checkerframework.framework.util.FlowProfiler;
 import org.checkerframework.framework.util.QualifierPolymorphism;
 import org.checkerframework.framework.util.defaults.QualifierDefaults;
 import org.checkerframework.framework.util.dependenttypes.DependentTypesHelper;
@@ -180,6 +181,11 @@ public abstract class GenericAnnotatedTypeFactory<
         this.initializationStaticStore = null;
 
         this.cfgVisualizer = createCFGVisualizer();
+        this.flowProfiler =
+                checker.hasOption("flowProfile")
+                        ? new FlowProfiler(
+                                checker.getClass().getSimpleName(), trees.getSourcePositions())
+                        : null;
 
         // Add common aliases.
         // addAliasedDeclAnnotation(checkers.nullness.quals.Pure.class,
@@ -808,6 +814,12 @@ public abstract class GenericAnnotatedTypeFactory<
         queue.add(classTree);
         while (!queue.isEmpty()) {
             ClassTree ct = queue.remove();
+            if (checker.shouldSkipDefs(ct)) {
+                // The visitor does not check classes that match the skipDefs or onlyDefs
+                // options, so do not analyze them, nor the classes nested in them.
+                scannedClasses.put(ct, ScanState.FINISHED);
+                continue;
+            }
             scannedClasses.put(ct, ScanState.IN_PROGRESS);
 
             AnnotatedDeclaredType preClassType = visitorState.getClassType();
@@ -902,6 +914,10 @@ public abstract class GenericAnnotatedTypeFactory<
                 }
 
                 // Now analyze all methods.
+                // The methods are analyzed one after another, not concurrently: the
+                // transfer functions query this factory, whose caches and
+                // flowResult/analysis fields are not thread-safe, and neither are
+                // javac's Trees, Types, or symbol completion.
                 // TODO: at this point, we don't have any information about
                 // fields of superclasses.
                 for (CFGMethod met : methods) {
@@ -997,8 +1013,28 @@ public abstract class GenericAnnotatedTypeFactory<
             boolean updateInitializationStore,
             boolean isStatic,
             Store lambdaStore) {
-        CFGBuilder builder = new CFCFGBuilder(checker, this);
-        ControlFlowGraph cfg = builder.run(root, processingEnv, ast);
+        long startTime = flowProfiler == null ? 0 : System.nanoTime();
+        ControlFlowGraph cfg;
+        List<ClassTree> declaredClasses;
+        List<LambdaExpressionTree> declaredLambdas;
+        CFGCache cfgCache = checker.getCFGCache();
+        CFGCache.Entry sharedCFG = cfgCache == null ? null : cfgCache.get(ast.getCode(), this);
+        if (sharedCFG != null) {
+            // Another checker already built the CFG.
+            sharedCFG.registerArtificialTrees(this);
+            cfg = sharedCFG.cfg;
+            declaredClasses = sharedCFG.declaredClasses;
+            declaredLambdas = sharedCFG.declaredLambdas;
+        } else {
+            CFCFGBuilder builder = new CFCFGBuilder(checker, this);
+            cfg = builder.run(root, processingEnv, ast);
+            if (cfgCache != null) {
+                cfgCache.put(ast.getCode(), cfg, builder);
+            }
+            declaredClasses = builder.getDeclaredClasses();
+            declaredLambdas = builder.getDeclaredLambdas();
+        }
+        long cfgTime = flowProfiler == null ? 0 : System.nanoTime();
         FlowAnalysis newAnalysis = createFlowAnalysis(fieldValues);
         TransferFunction transfer = newAnalysis.getTransferFunction();
         if (emptyStore == null) {
@@ -1019,6 +1055,29 @@ public abstract class GenericAnnotatedTypeFactory<
             }
         }
         analyses.getFirst().performAnalysis(cfg);
+        if (flowProfiler != null) {
+            Tree code;
+            switch (ast.getKind()) {
+                case METHOD:
+                    code = ((CFGMethod) ast).getMethod();
+                    break;
+                case LAMBDA:
+                    // getCode() returns the body of the lambda.
+                    code = ((CFGLambda) ast).getLambdaTree();
+                    break;
+                default:
+                    code = ast.getCode();
+                    break;
+            }
+            flowProfiler.recordAnalysis(
+                    root,
+                    currentClass,
+                    code,
+                    cfg,
+                    analyses.getFirst(),
+                    cfgTime - startTime,
+                    System.nanoTime() - cfgTime);
+        }
         AnalysisResult<Value, Store> result = analyses.getFirst().getResult();
 
         // store result
@@ -1064,8 +1123,8 @@ public abstract class GenericAnnotatedTypeFactory<
         analyses.removeFirst();
 
         // add classes declared in method
-        queue.addAll(builder.getDeclaredClasses());
-        for (LambdaExpressionTree lambda : builder.getDeclaredLambdas()) {
+        queue.addAll(declaredClasses);
+        for (LambdaExpressionTree lambda : declaredLambdas) {
             lambdaQueue.add(Pair.of(lambda, getStoreBefore(lambda)));
         }
     }
@@ -1425,4 +1484,15 @@ public abstract class GenericAnnotatedTypeFactory<
     public CFGVisualizer<Value, Store, TransferFunction> getCFGVisualizer() {
         return cfgVisualizer;
     }
+
+    /** Records the cost of analyzing and checking each method, or null if not profiling. */
+    protected final /*@Nullable*/ FlowProfiler flowProfiler;
+
+    /**
+     * Returns the profiler that records the cost of analyzing and checking each method, or null if
+     * the {@code -AflowProfile} option is not given.
+     */
+    public /*@Nullable*/ FlowProfiler getFlowProfiler() {
+        return flowProfiler;
+    }
 }
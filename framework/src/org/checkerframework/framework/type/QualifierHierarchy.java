@@ -113,6 +113,24 @@ public abstract class QualifierHierarchy {
      */
     public abstract AnnotationMirror leastUpperBound(AnnotationMirror a1, AnnotationMirror a2);
 
+    /**
+     * Returns an upper bound of the qualifiers {@code newQualifier} and {@code previousQualifier}
+     * that may be wider than their least upper bound. Dataflow analysis uses this to merge the
+     * qualifiers at a loop head whose store has changed many times; repeatedly widening a
+     * qualifier must reach a fixed point after finitely many steps.
+     *
+     * <p>The default implementation returns the least upper bound, which is sufficient for
+     * hierarchies of finite height.
+     *
+     * @param newQualifier the qualifier computed by the latest iteration
+     * @param previousQualifier the qualifier computed by the previous iteration
+     * @return an upper bound of the two qualifiers
+     */
+    public AnnotationMirror widenedUpperBound(
+            AnnotationMirror newQualifier, AnnotationMirror previousQualifier) {
+        return leastUpperBound(newQualifier, previousQualifier);
+    }
+
     /**
      * Returns the greatest lower bound for the qualifiers a1 and a2.
      *
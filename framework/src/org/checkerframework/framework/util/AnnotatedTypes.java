@@ -468,16 +468,16 @@ public class AnnotatedTypes {
      * A utility method that takes a Method element and returns a set of all elements that this
      * method overrides (as {@link ExecutableElement}s)
      *
+     * <p>The result is cached by {@code atypeFactory}, see {@link
+     * AnnotatedTypeFactory#getOverriddenMethods(ExecutableElement)}.
+     *
      * @param method the overriding method
      * @return an unmodifiable set of {@link ExecutableElement}s representing the elements that
      *     method overrides
      */
     public static Map<AnnotatedDeclaredType, ExecutableElement> overriddenMethods(
             Elements elements, AnnotatedTypeFactory atypeFactory, ExecutableElement method) {
-        final TypeElement elem = (TypeElement) method.getEnclosingElement();
-        final AnnotatedDeclaredType type = atypeFactory.getAnnotatedType(elem);
-        final Collection<AnnotatedDeclaredType> supertypes = getSuperTypes(type);
-        return overriddenMethods(elements, method, supertypes);
+        return atypeFactory.getOverriddenMethods(method);
     }
 
     /**
@@ -1,5 +1,6 @@
 package org.checkerframework.framework.util;
 
+import com.sun.tools.javac.util.Convert;
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -25,6 +26,7 @@ import javax.lang.model.util.ElementFilter;
 import javax.lang.model.util.Elements;
 import javax.lang.model.util.Types;
 import org.checkerframework.dataflow.qual.SideEffectFree;
+import org.checkerframework.javacutil.AnnotationUtils;
 import org.checkerframework.javacutil.ErrorReporter;
 import org.checkerframework.javacutil.InternalUtils;
 import org.checkerframework.javacutil.TypesUtils;
@@ -94,9 +96,17 @@ public class AnnotationBuilder {
         }
     }
 
+    /**
+     * Returns the annotation. Annotations with the same type and values share a single canonical
+     * instance; see {@link AnnotationUtils#canonicalAnnotation(AnnotationMirror)}.
+     */
     public AnnotationMirror build() {
         assertNotBuilt();
         wasBuilt = true;
+        return AnnotationUtils.canonicalAnnotation(createAnnotationMirror());
+    }
+
+    private AnnotationMirror createAnnotationMirror() {
         return new AnnotationMirror() {
 
             private String toStringVal;
@@ -459,10 +469,12 @@ public class AnnotationBuilder {
             @SideEffectFree
             @Override
             public String toString() {
+                // Escape quotes and special characters as javac does, so that distinct values
+                // have distinct string representations.
                 if (value instanceof String) {
-                    return "\"" + value.toString() + "\"";
+                    return "\"" + Convert.quote((String) value) + "\"";
                 } else if (value instanceof Character) {
-                    return "\'" + value.toString() + "\'";
+                    return "\'" + Convert.quote(value.toString()) + "\'";
                 } else if (value instanceof List<?>) {
                     StringBuilder sb = new StringBuilder();
                     List<?> list = (List<?>) value;
@@ -0,0 +1,219 @@
+package org.checkerframework.framework.util;
+
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.LambdaExpressionTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.SourcePositions;
+import java.io.PrintWriter;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import org.checkerframework.dataflow.analysis.Analysis;
+import org.checkerframework.dataflow.cfg.ControlFlowGraph;
+import org.checkerframework.dataflow.cfg.block.Block;
+import org.checkerframework.dataflow.cfg.block.ExceptionBlock;
+import org.checkerframework.dataflow.cfg.block.RegularBlock;
+
+/**
+ * Records, for each method, lambda, and initializer of the checked code, the size of its control
+ * flow graph, the work done by the dataflow analysis, and the time spent building the control flow
+ * graph, analyzing it, and type-checking the method. Used to find the methods that dominate the
+ * running time of a checker.
+ *
+ * <p>A type factory has a profiler if the {@code -AflowProfile=<file>} option is given. The
+ * recorded rows of all checkers are written to that file as CSV when type processing is over.
+ *
+ * @see org.checkerframework.framework.type.GenericAnnotatedTypeFactory#getFlowProfiler()
+ */
+public class FlowProfiler {
+
+    /** The header line of the CSV output. */
+    public static final String CSV_HEADER =
+            "checker,file,line,class,code,kind,blocks,nodes,blockVisits,storeCopies,storeMerges,"
+                    + "cfgMillis,analysisMillis,visitMillis";
+
+    /** The name of the checker whose type factory records the profile. */
+    private final String checkerName;
+
+    /** Used to compute the line numbers of trees. */
+    private final SourcePositions positions;
+
+    /**
+     * The recorded rows, in the order in which their code was first analyzed or visited. The keys
+     * are the file name and start position of the code, so that the profiler does not keep the
+     * ASTs of the checked code alive.
+     */
+    private final Map<String, Row> rows = new LinkedHashMap<>();
+
+    /**
+     * Creates a profiler.
+     *
+     * @param checkerName the name of the checker whose type factory records the profile
+     * @param positions used to compute the line numbers of trees
+     */
+    public FlowProfiler(String checkerName, SourcePositions positions) {
+        this.checkerName = checkerName;
+        this.positions = positions;
+    }
+
+    /** The measurements for one method, lambda, or initializer. */
+    private static class Row {
+        final String file;
+        final long line;
+        final String className;
+        final String code;
+        final String kind;
+        int blocks;
+        int nodes;
+        int blockVisits;
+        int storeCopies;
+        int storeMerges;
+        long cfgNanos;
+        long analysisNanos;
+        long visitNanos;
+
+        Row(String file, long line, String className, String code, String kind) {
+            this.file = file;
+            this.line = line;
+            this.className = className;
+            this.code = code;
+            this.kind = kind;
+        }
+    }
+
+    /**
+     * Returns the row for {@code code}, creating it if necessary.
+     *
+     * @param root the compilation unit that contains {@code code}
+     * @param classTree the class that contains {@code code}
+     * @param code the method, lambda, or other code that is measured
+     */
+    private Row getRow(CompilationUnitTree root, ClassTree classTree, Tree code) {
+        String fileName = root.getSourceFile().getName();
+        long startPosition = positions.getStartPosition(root, code);
+        String key = fileName + ":" + startPosition;
+        Row row = rows.get(key);
+        if (row == null) {
+            long line = root.getLineMap().getLineNumber(startPosition);
+            String name;
+            String kind;
+            if (code instanceof MethodTree) {
+                name = ((MethodTree) code).getName().toString();
+                kind = "method";
+            } else if (code instanceof LambdaExpressionTree) {
+                name = "lambda";
+                kind = "lambda";
+            } else {
+                name = code.getKind().toString().toLowerCase();
+                kind = "initializer";
+            }
+            row = new Row(fileName, line, classTree.getSimpleName().toString(), name, kind);
+            rows.put(key, row);
+        }
+        return row;
+    }
+
+    /**
+     * Records the analysis of {@code code}. If the same code is analyzed more than once, the
+     * measurements are added up.
+     *
+     * @param root the compilation unit that contains {@code code}
+     * @param classTree the class that contains {@code code}
+     * @param code the method, lambda, or other code that was analyzed
+     * @param cfg the control flow graph of {@code code}
+     * @param analysis the analysis that analyzed {@code cfg}
+     * @param cfgNanos the time spent building {@code cfg}
+     * @param analysisNanos the time spent analyzing {@code cfg}
+     */
+    public void recordAnalysis(
+            CompilationUnitTree root,
+            ClassTree classTree,
+            Tree code,
+            ControlFlowGraph cfg,
+            Analysis<?, ?, ?> analysis,
+            long cfgNanos,
+            long analysisNanos) {
+        Row row = getRow(root, classTree, code);
+        for (Block b : cfg.getAllBlocks()) {
+            row.blocks++;
+            if (b instanceof RegularBlock) {
+                row.nodes += ((RegularBlock) b).getContents().size();
+            } else if (b instanceof ExceptionBlock) {
+                row.nodes++;
+            }
+        }
+        row.blockVisits += analysis.getBlockVisitCount();
+        row.storeCopies += analysis.getStoreCopyCount();
+        row.storeMerges += analysis.getStoreMergeCount();
+        row.cfgNanos += cfgNanos;
+        row.analysisNanos += analysisNanos;
+    }
+
+    /**
+     * Records the time spent type-checking the method {@code method}, including the code nested in
+     * it.
+     *
+     * @param root the compilation unit that contains {@code method}
+     * @param classTree the class that contains {@code method}
+     * @param method the method that was type-checked
+     * @param visitNanos the time spent type-checking {@code method}
+     */
+    public void recordVisit(
+            CompilationUnitTree root, ClassTree classTree, MethodTree method, long visitNanos) {
+        getRow(root, classTree, method).visitNanos += visitNanos;
+    }
+
+    /**
+     * Writes the recorded rows as CSV, without a header.
+     *
+     * @param out where to write the rows
+     * @see #CSV_HEADER
+     */
+    public void writeCSV(PrintWriter out) {
+        for (Row row : rows.values()) {
+            out.println(
+                    csvField(checkerName)
+                            + ","
+                            + csvField(row.file)
+                            + ","
+                            + row.line
+                            + ","
+                            + csvField(row.className)
+                            + ","
+                            + csvField(row.code)
+                            + ","
+                            + row.kind
+                            + ","
+                            + row.blocks
+                            + ","
+                            + row.nodes
+                            + ","
+                            + row.blockVisits
+                            + ","
+                            + row.storeCopies
+                            + ","
+                            + row.storeMerges
+                            + ","
+                            + toMillis(row.cfgNanos)
+                            + ","
+                            + toMillis(row.analysisNanos)
+                            + ","
+                            + toMillis(row.visitNanos));
+        }
+    }
+
+    /** Quotes {@code field} if it contains characters that are special in CSV. */
+    private static String csvField(String field) {
+        if (field.indexOf(',') == -1 && field.indexOf('"') == -1) {
+            return field;
+        }
+        return "\"" + field.replace("\"", "\"\"") + "\"";
+    }
+
+    /** Converts nanoseconds to milliseconds with a precision of one microsecond. */
+    private static String toMillis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+    }
+}
@@ -8,14 +8,17 @@ import org.checkerframework.checker.nullness.qual.PolyNull;
 */
 
 import java.lang.annotation.Annotation;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.util.ElementFilter;
 import org.checkerframework.dataflow.qual.Pure;
 import org.checkerframework.dataflow.qual.SideEffectFree;
 import org.checkerframework.framework.qual.PolymorphicQualifier;
@@ -173,6 +176,38 @@ public class MultiGraphQualifierHierarchy extends QualifierHierarchy {
     /** @see MultiGraphQualifierHierarchy.MultiGraphFactory#polyQualifiers */
     protected final Map<AnnotationMirror, AnnotationMirror> polyQualifiers;
 
+    /**
+     * Dense ids for the qualifiers in supertypesMap whose annotation types declare no elements. Two
+     * such annotations are the same iff they have the same name, so results involving only these
+     * qualifiers are looked up in tables indexed by id. Qualifiers with elements, such as
+     * {@code @Regex(n)}, have no id and always use the general algorithms.
+     */
+    private final Map</*@Interned*/ String, Integer> qualifierIds;
+
+    /** The qualifier for each id. */
+    private final AnnotationMirror[] qualifiersById;
+
+    /** {@code subtypeTable[i][j]} is true iff the qualifier with id i is a subtype of id j. */
+    private final boolean[][] subtypeTable;
+
+    /** The top qualifier for each id, or null if it has not been computed yet. */
+    private final AnnotationMirror[] topsById;
+
+    /** The lub for each pair of ids; valid only where lubKnown is true. */
+    private final AnnotationMirror[][] lubTable;
+
+    /** {@code lubKnown[i][j]} is true iff {@code lubTable[i][j]} has been computed. */
+    private final boolean[][] lubKnown;
+
+    /** The glb for each pair of ids; valid only where glbKnown is true. */
+    private final AnnotationMirror[][] glbTable;
+
+    /** {@code glbKnown[i][j]} is true iff {@code glbTable[i][j]} has been computed. */
+    private final boolean[][] glbKnown;
+
+    /** Returned by {@link #qualifierId(AnnotationMirror)} for qualifiers without an id. */
+    private static final int NO_ID = -1;
+
     public MultiGraphQualifierHierarchy(MultiGraphFactory f) {
         this(f, (Object[]) null);
     }
@@ -205,9 +240,49 @@ public class MultiGraphQualifierHierarchy extends QualifierHierarchy {
         // TODO: make polyQualifiers immutable also?
 
         this.supertypesMap = Collections.unmodifiableMap(fullMap);
+
+        this.qualifierIds = new HashMap</*@Interned*/ String, Integer>();
+        List<AnnotationMirror> indexed = new ArrayList<AnnotationMirror>();
+        for (AnnotationMirror qual : supertypesMap.keySet()) {
+            if (ElementFilter.methodsIn(qual.getAnnotationType().asElement().getEnclosedElements())
+                    .isEmpty()) {
+                qualifierIds.put(AnnotationUtils.annotationName(qual), indexed.size());
+                indexed.add(qual);
+            }
+        }
+        int size = indexed.size();
+        this.qualifiersById = indexed.toArray(new AnnotationMirror[size]);
+        this.subtypeTable = new boolean[size][size];
+        for (int sub = 0; sub < size; sub++) {
+            subtypeTable[sub][sub] = true;
+            for (AnnotationMirror sup : supertypesMap.get(qualifiersById[sub])) {
+                Integer supId = qualifierIds.get(AnnotationUtils.annotationName(sup));
+                if (supId != null) {
+                    subtypeTable[sub][supId] = true;
+                }
+            }
+        }
+        this.topsById = new AnnotationMirror[size];
+        this.lubTable = new AnnotationMirror[size][size];
+        this.lubKnown = new boolean[size][size];
+        this.glbTable = new AnnotationMirror[size][size];
+        this.glbKnown = new boolean[size][size];
         // System.out.println("MGH: " + this);
     }
 
+    /**
+     * Returns the dense id of {@code qual}, or {@link #NO_ID} if it is null or has no id.
+     *
+     * @see #qualifierIds
+     */
+    private int qualifierId(AnnotationMirror qual) {
+        if (qual == null) {
+            return NO_ID;
+        }
+        Integer id = qualifierIds.get(AnnotationUtils.annotationName(qual));
+        return id == null ? NO_ID : id;
+    }
+
     /**
      * Method to finalize the qualifier hierarchy before it becomes unmodifiable. The parameters
      * pass all fields and allow modification.
@@ -278,6 +353,17 @@ public class MultiGraphQualifierHierarchy extends QualifierHierarchy {
 
     @Override
     public AnnotationMirror getTopAnnotation(AnnotationMirror start) {
+        int id = qualifierId(start);
+        if (id != NO_ID) {
+            if (topsById[id] == null) {
+                topsById[id] = findTopAnnotation(start);
+            }
+            return topsById[id];
+        }
+        return findTopAnnotation(start);
+    }
+
+    private AnnotationMirror findTopAnnotation(AnnotationMirror start) {
         for (AnnotationMirror top : tops) {
             if (AnnotationUtils.areSame(start, top) || isSubtype(start, top)) {
                 return top;
@@ -395,6 +481,20 @@ public class MultiGraphQualifierHierarchy extends QualifierHierarchy {
 
     @Override
     public AnnotationMirror leastUpperBound(AnnotationMirror a1, AnnotationMirror a2) {
+        int id1 = qualifierId(a1);
+        int id2 = qualifierId(a2);
+        if (id1 != NO_ID && id2 != NO_ID) {
+            if (!lubKnown[id1][id2]) {
+                lubTable[id1][id2] =
+                        computeLeastUpperBound(qualifiersById[id1], qualifiersById[id2]);
+                lubKnown[id1][id2] = true;
+            }
+            return lubTable[id1][id2];
+        }
+        return computeLeastUpperBound(a1, a2);
+    }
+
+    private AnnotationMirror computeLeastUpperBound(AnnotationMirror a1, AnnotationMirror a2) {
         if (!AnnotationUtils.areSameIgnoringValues(getTopAnnotation(a1), getTopAnnotation(a2))) {
             return null;
         } else if (isSubtype(a1, a2)) {
@@ -425,6 +525,20 @@ public class MultiGraphQualifierHierarchy extends QualifierHierarchy {
 
     @Override
     public AnnotationMirror greatestLowerBound(AnnotationMirror a1, AnnotationMirror a2) {
+        int id1 = qualifierId(a1);
+        int id2 = qualifierId(a2);
+        if (id1 != NO_ID && id2 != NO_ID) {
+            if (!glbKnown[id1][id2]) {
+                glbTable[id1][id2] =
+                        computeGreatestLowerBound(qualifiersById[id1], qualifiersById[id2]);
+                glbKnown[id1][id2] = true;
+            }
+            return glbTable[id1][id2];
+        }
+        return computeGreatestLowerBound(a1, a2);
+    }
+
+    private AnnotationMirror computeGreatestLowerBound(AnnotationMirror a1, AnnotationMirror a2) {
         if (AnnotationUtils.areSameIgnoringValues(a1, a2)) {
             return AnnotationUtils.areSame(a1, a2) ? a1 : getBottomAnnotation(a1);
         }
@@ -463,6 +577,12 @@ public class MultiGraphQualifierHierarchy extends QualifierHierarchy {
      */
     @Override
     public boolean isSubtype(AnnotationMirror rhs, AnnotationMirror lhs) {
+        int rhsId = qualifierId(rhs);
+        int lhsId = qualifierId(lhs);
+        if (rhsId != NO_ID && lhsId != NO_ID) {
+            return subtypeTable[rhsId][lhsId];
+        }
+
         checkAnnoInGraph(rhs);
         checkAnnoInGraph(lhs);
 
@@ -12,6 +12,7 @@ import com.sun.source.tree.VariableTree;
 import com.sun.source.util.TreePath;
 import com.sun.tools.javac.code.Type.WildcardType;
 import java.lang.annotation.Annotation;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.IdentityHashMap;
 import java.util.List;
@@ -86,10 +87,14 @@ public class QualifierDefaults {
     private final DefaultSet checkedCodeDefaults = new DefaultSet();
     private final DefaultSet uncheckedCodeDefaults = new DefaultSet();
 
-    /** Mapping from an Element to the source Tree of the declaration. */
+    /** The size of {@link #elementToBoundType}. */
     private static final int CACHE_SIZE = 300;
 
-    protected static final Map<Element, BoundType> elementToBoundType =
+    /**
+     * Mapping from a type parameter to its {@link BoundType}. The cache belongs to the factory of
+     * these defaults, because the bound type is computed from the trees of that factory.
+     */
+    protected final Map<Element, BoundType> elementToBoundType =
             CollectionUtils.createLRUCache(CACHE_SIZE);
 
     /**
@@ -99,6 +104,15 @@ public class QualifierDefaults {
      */
     private final Map<Element, DefaultSet> elementDefaults = new IdentityHashMap<>();
 
+    /**
+     * Elements for which {@link #defaultsAt} found no defaults, neither on the element nor on its
+     * enclosing elements. Such elements are not in {@link #elementDefaults}. Without this set,
+     * every type in a scope without defaults would look up the defaults of all enclosing
+     * elements.
+     */
+    private final Set<Element> elementsWithoutDefaults =
+            Collections.newSetFromMap(new IdentityHashMap<Element, Boolean>());
+
     /** A mapping of Element &rarr; Whether or not that element is AnnotatedFor this type system. */
     private final Map<Element, Boolean> elementAnnotatedFors = new IdentityHashMap<>();
 
@@ -303,6 +317,8 @@ public class QualifierDefaults {
         }
         prevset.add(new Default(elementDefaultAnno, location));
         elementDefaults.put(elem, prevset);
+        // The element may enclose elements that were found to have no defaults.
+        elementsWithoutDefaults.clear();
     }
 
     private void checkIsValidUncheckedCodeLocation(
@@ -588,6 +604,9 @@ public class QualifierDefaults {
         if (elementDefaults.containsKey(elt)) {
             return elementDefaults.get(elt);
         }
+        if (elementsWithoutDefaults.contains(elt)) {
+            return DefaultSet.EMPTY;
+        }
 
         DefaultSet qualifiers = null;
 
@@ -637,6 +656,7 @@ public class QualifierDefaults {
             elementDefaults.put(elt, qualifiers);
             return qualifiers;
         } else {
+            elementsWithoutDefaults.add(elt);
             return DefaultSet.EMPTY;
         }
     }
@@ -697,7 +717,8 @@ public class QualifierDefaults {
             final Element annotationScope, final AnnotatedTypeMirror type) {
         DefaultSet defaults = defaultsAt(annotationScope);
         DefaultApplierElement applier =
-                new DefaultApplierElement(atypeFactory, annotationScope, type, applyToTypeVar);
+                new DefaultApplierElement(
+                        atypeFactory, annotationScope, type, applyToTypeVar, elementToBoundType);
 
         for (Default def : defaults) {
             applier.applyDefault(def);
@@ -720,6 +741,9 @@ public class QualifierDefaults {
         private final Element scope;
         private final AnnotatedTypeMirror type;
 
+        /** The cache of bound types to use, or null to compute bound types without a cache. */
+        private final /*@Nullable*/ Map<Element, BoundType> elementToBoundType;
+
         /**
          * Location to which to apply the default. (Should only be set by the applyDefault method.)
          */
@@ -744,9 +768,23 @@ public class QualifierDefaults {
                 Element scope,
                 AnnotatedTypeMirror type,
                 boolean applyToTypeVar) {
+            this(atypeFactory, scope, type, applyToTypeVar, null);
+        }
+
+        /**
+         * Creates an applier that caches the bound types of type parameters in {@code
+         * elementToBoundType}, which must belong to {@code atypeFactory}.
+         */
+        public DefaultApplierElement(
+                AnnotatedTypeFactory atypeFactory,
+                Element scope,
+                AnnotatedTypeMirror type,
+                boolean applyToTypeVar,
+                /*@Nullable*/ Map<Element, BoundType> elementToBoundType) {
             this.atypeFactory = atypeFactory;
             this.scope = scope;
             this.type = type;
+            this.elementToBoundType = elementToBoundType;
             this.impl = new DefaultApplierElementImpl();
             this.defaultableTypeVar = (applyToTypeVar) ? (AnnotatedTypeVariable) type : null;
         }
@@ -1042,7 +1080,7 @@ public class QualifierDefaults {
                 final boolean prevIsLowerBound = isLowerBound;
                 final BoundType prevBoundType = boundType;
 
-                boundType = getBoundType(boundedType, atypeFactory);
+                boundType = getBoundType(boundedType, atypeFactory, elementToBoundType);
 
                 try {
                     isLowerBound = true;
@@ -1099,16 +1137,21 @@ public class QualifierDefaults {
     /**
      * @param type the type whose boundType is returned. type must be an AnnotatedWildcardType or
      *     AnnotatedTypeVariable.
+     * @param elementToBoundType the cache of bound types, or null
      * @return the boundType for type
      */
     private static BoundType getBoundType(
-            final AnnotatedTypeMirror type, final AnnotatedTypeFactory typeFactory) {
+            final AnnotatedTypeMirror type,
+            final AnnotatedTypeFactory typeFactory,
+            final /*@Nullable*/ Map<Element, BoundType> elementToBoundType) {
         if (type instanceof AnnotatedTypeVariable) {
-            return getTypeVarBoundType((AnnotatedTypeVariable) type, typeFactory);
+            return getTypeVarBoundType(
+                    (AnnotatedTypeVariable) type, typeFactory, elementToBoundType);
         }
 
         if (type instanceof AnnotatedWildcardType) {
-            return getWildcardBoundType((AnnotatedWildcardType) type, typeFactory);
+            return getWildcardBoundType(
+                    (AnnotatedWildcardType) type, typeFactory, elementToBoundType);
         }
 
         ErrorReporter.errorAbort("Unexpected type kind: type=" + type);
@@ -1117,16 +1160,23 @@ public class QualifierDefaults {
 
     /** @return the bound type of the input typeVar */
     private static BoundType getTypeVarBoundType(
-            final AnnotatedTypeVariable typeVar, final AnnotatedTypeFactory typeFactory) {
+            final AnnotatedTypeVariable typeVar,
+            final AnnotatedTypeFactory typeFactory,
+            final /*@Nullable*/ Map<Element, BoundType> elementToBoundType) {
         return getTypeVarBoundType(
-                (TypeParameterElement) typeVar.getUnderlyingType().asElement(), typeFactory);
+                (TypeParameterElement) typeVar.getUnderlyingType().asElement(),
+                typeFactory,
+                elementToBoundType);
     }
 
     /** @return the boundType (UPPER or UNBOUNDED) of the declaration of typeParamElem */
-    // Results are cached in {@link elementToBoundType}.
+    // Results are cached in elementToBoundType, unless it is null.
     private static BoundType getTypeVarBoundType(
-            final TypeParameterElement typeParamElem, final AnnotatedTypeFactory typeFactory) {
-        final BoundType prev = elementToBoundType.get(typeParamElem);
+            final TypeParameterElement typeParamElem,
+            final AnnotatedTypeFactory typeFactory,
+            final /*@Nullable*/ Map<Element, BoundType> elementToBoundType) {
+        final BoundType prev =
+                elementToBoundType == null ? null : elementToBoundType.get(typeParamElem);
         if (prev != null) {
             return prev;
         }
@@ -1170,7 +1220,9 @@ public class QualifierDefaults {
             }
         }
 
-        elementToBoundType.put(typeParamElem, boundType);
+        if (elementToBoundType != null) {
+            elementToBoundType.put(typeParamElem, boundType);
+        }
         return boundType;
     }
 
@@ -1180,6 +1232,17 @@ public class QualifierDefaults {
      */
     public static BoundType getWildcardBoundType(
             final AnnotatedWildcardType annotatedWildcard, final AnnotatedTypeFactory typeFactory) {
+        return getWildcardBoundType(annotatedWildcard, typeFactory, null);
+    }
+
+    /**
+     * Like {@link #getWildcardBoundType(AnnotatedWildcardType, AnnotatedTypeFactory)}, but caches
+     * the bound type of the type parameter in {@code elementToBoundType}, unless it is null.
+     */
+    private static BoundType getWildcardBoundType(
+            final AnnotatedWildcardType annotatedWildcard,
+            final AnnotatedTypeFactory typeFactory,
+            final /*@Nullable*/ Map<Element, BoundType> elementToBoundType) {
 
         final WildcardType wildcard = (WildcardType) annotatedWildcard.getUnderlyingType();
 
@@ -1187,7 +1250,9 @@ public class QualifierDefaults {
         if (wildcard.isUnbound() && wildcard.bound != null) {
             boundType =
                     getTypeVarBoundType(
-                            (TypeParameterElement) wildcard.bound.asElement(), typeFactory);
+                            (TypeParameterElement) wildcard.bound.asElement(),
+                            typeFactory,
+                            elementToBoundType);
 
         } else {
             // note: isSuperBound will be true for unbounded and lowers, but the unbounded case is already handled
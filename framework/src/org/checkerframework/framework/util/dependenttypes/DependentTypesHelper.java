@@ -15,7 +15,9 @@ import com.sun.source.tree.VariableTree;
 import com.sun.source.util.TreePath;
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
@@ -417,6 +419,12 @@ public class DependentTypesHelper {
         private final TreePath localScope;
         /** Whether or not the expression might contain a variable declared in local scope */
         private final boolean useLocalScope;
+        /**
+         * The result of standardizing each expression string seen so far. All expressions are
+         * standardized in the same context, so an expression that appears in several annotations
+         * of the type is parsed only once.
+         */
+        private final Map<String, String> standardizedExpressions = new HashMap<>();
 
         private StandardizeTypeAnnotator(
                 FlowExpressionContext context, TreePath localScope, boolean useLocalScope) {
@@ -437,7 +445,13 @@ public class DependentTypesHelper {
                     AnnotationUtils.getElementValueArray(anno, "value", String.class, true);
             List<String> vpdStrings = new ArrayList<>();
             for (String expression : expressionStrings) {
-                vpdStrings.add(standardizeString(expression, context, localScope, useLocalScope));
+                String standardized = standardizedExpressions.get(expression);
+                if (standardized == null) {
+                    standardized =
+                            standardizeString(expression, context, localScope, useLocalScope);
+                    standardizedExpressions.put(expression, standardized);
+                }
+                vpdStrings.add(standardized);
             }
             AnnotationBuilder builder =
                     new AnnotationBuilder(
@@ -497,6 +497,12 @@ public class DefaultTypeArgumentInference implements TypeArgumentInference {
         Set<TUConstraint> tuArgConstraints = afToTuConstraints(afArgumentConstraints, targets);
         addConstraintsBetweenTargets(tuArgConstraints, targets, false, typeFactory);
 
+        if (tuArgConstraints.isEmpty()) {
+            // No argument mentions a target, e.g. Collections.emptyList(), so the solvers would
+            // not infer anything.
+            return Pair.of(new InferenceResult(), new InferenceResult());
+        }
+
         ConstraintMap argConstraints =
                 constraintMapBuilder.build(targets, tuArgConstraints, typeFactory);
 
@@ -525,6 +531,11 @@ public class DefaultTypeArgumentInference implements TypeArgumentInference {
                 createInitialAssignmentConstraints(
                         assignedTo, boxedReturnType, typeFactory, targets);
 
+        if (afInitialAssignmentConstraints.isEmpty()) {
+            // The assignment context does not fix any target.
+            return new InferenceResult();
+        }
+
         Set<TUConstraint> tuInitialAssignmentConstraints =
                 afToTuConstraints(afInitialAssignmentConstraints, targets);
         ConstraintMap initialAssignmentConstraints =
@@ -0,0 +1,15 @@
+import testlib.util.Odd;
+
+// Only the subchecker treats Thread.dumpStack() as terminating execution, so
+// the checker must not reuse the CFG that the subchecker built.
+class TerminatesExecution {
+    void dumpStackDoesNotTerminate(@Odd String odd, String s, boolean b) {
+        String x = odd;
+        if (b) {
+            x = s;
+            Thread.dumpStack();
+        }
+        //:: error: (assignment.type.incompatible)
+        @Odd String y = x;
+    }
+}
@@ -0,0 +1,31 @@
+package testlib.compound;
+
+import java.util.LinkedHashSet;
+import org.checkerframework.common.basetype.BaseTypeChecker;
+import org.checkerframework.common.basetype.BaseTypeVisitor;
+import testlib.util.FlowTestAnnotatedTypeFactory;
+
+/**
+ * Used to test that a checker does not reuse the CFG of a subchecker that disagrees on which methods
+ * terminate execution. The stub file of the subchecker annotates a method with {@code
+ * TerminatesExecution}; this checker does not.
+ */
+public class TerminatesExecutionChecker extends BaseTypeChecker {
+    @Override
+    protected LinkedHashSet<Class<? extends BaseTypeChecker>> getImmediateSubcheckerClasses() {
+        LinkedHashSet<Class<? extends BaseTypeChecker>> subcheckers = new LinkedHashSet<>();
+        subcheckers.addAll(super.getImmediateSubcheckerClasses());
+        subcheckers.add(TerminatesExecutionSubchecker.class);
+        return subcheckers;
+    }
+
+    @Override
+    protected BaseTypeVisitor<?> createSourceVisitor() {
+        return new BaseTypeVisitor<FlowTestAnnotatedTypeFactory>(this) {
+            @Override
+            protected FlowTestAnnotatedTypeFactory createTypeFactory() {
+                return new FlowTestAnnotatedTypeFactory(checker);
+            }
+        };
+    }
+}
@@ -0,0 +1,20 @@
+package testlib.compound;
+
+import org.checkerframework.common.basetype.BaseTypeChecker;
+import org.checkerframework.common.basetype.BaseTypeVisitor;
+import org.checkerframework.framework.qual.StubFiles;
+import testlib.util.FlowTestAnnotatedTypeFactory;
+
+/** The subchecker of {@link TerminatesExecutionChecker}. */
+@StubFiles("tests/compound-checker-terminates/terminates.astub")
+public class TerminatesExecutionSubchecker extends BaseTypeChecker {
+    @Override
+    protected BaseTypeVisitor<?> createSourceVisitor() {
+        return new BaseTypeVisitor<FlowTestAnnotatedTypeFactory>(this) {
+            @Override
+            protected FlowTestAnnotatedTypeFactory createTypeFactory() {
+                return new FlowTestAnnotatedTypeFactory(checker);
+            }
+        };
+    }
+}
@@ -1,6 +1,9 @@
 package tests;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import com.sun.tools.javac.processing.JavacProcessingEnvironment;
@@ -99,6 +102,33 @@ public class AnnotationBuilderTest {
         assertEquals(1, builder.build().getElementValues().size());
     }
 
+    @Test
+    public void valuesWithQuotesAndCommas() {
+        AnnotationBuilder builder1 = new AnnotationBuilder(env, B.class);
+        builder1.setValue("strings", new String[] {"a\", \"b"});
+        AnnotationMirror oneString = builder1.build();
+
+        AnnotationBuilder builder2 = new AnnotationBuilder(env, B.class);
+        builder2.setValue("strings", new String[] {"a", "b"});
+        AnnotationMirror twoStrings = builder2.build();
+
+        assertNotSame(oneString, twoStrings);
+        assertFalse(AnnotationUtils.areSame(oneString, twoStrings));
+
+        AnnotationBuilder builder3 = new AnnotationBuilder(env, B.class);
+        builder3.setValue("strings", new String[] {"a\", \"b"});
+        assertSame(oneString, builder3.build());
+    }
+
+    @Test
+    public void stringValuesWithQuotes() {
+        AnnotationBuilder builder = new AnnotationBuilder(env, Mult.class);
+        builder.setValue("b", "m\", b=\"n");
+        assertEquals(
+                "@tests.AnnotationBuilderTest.Mult(b=\"m\\\", b=\\\"n\")",
+                builder.build().toString());
+    }
+
     @Test(expected = SourceChecker.CheckerError.class)
     public void listArrayObjectWrongType() {
         AnnotationBuilder builder = new AnnotationBuilder(env, B.class);
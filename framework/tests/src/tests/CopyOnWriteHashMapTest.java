@@ -0,0 +1,149 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import org.checkerframework.dataflow.util.CopyOnWriteHashMap;
+import org.junit.Test;
+
+public class CopyOnWriteHashMapTest {
+
+    private static CopyOnWriteHashMap<String, Integer> makeMap() {
+        CopyOnWriteHashMap<String, Integer> map = new CopyOnWriteHashMap<>();
+        map.put("a", 1);
+        map.put("b", 2);
+        return map;
+    }
+
+    @Test
+    public void copySharesEntries() {
+        CopyOnWriteHashMap<String, Integer> original = makeMap();
+        CopyOnWriteHashMap<String, Integer> copy = original.copy();
+
+        assertTrue(original.sharesEntriesWith(copy));
+        assertTrue(copy.sharesEntriesWith(original));
+        assertEquals(original, copy);
+    }
+
+    @Test
+    public void writeToCopyDoesNotLeak() {
+        CopyOnWriteHashMap<String, Integer> original = makeMap();
+        CopyOnWriteHashMap<String, Integer> copy = original.copy();
+
+        copy.put("c", 3);
+        copy.put("a", 10);
+        copy.remove("b");
+
+        assertFalse(original.sharesEntriesWith(copy));
+        assertEquals(2, original.size());
+        assertEquals(Integer.valueOf(1), original.get("a"));
+        assertEquals(Integer.valueOf(2), original.get("b"));
+        assertFalse(original.containsKey("c"));
+    }
+
+    @Test
+    public void writeToOriginalDoesNotLeak() {
+        CopyOnWriteHashMap<String, Integer> original = makeMap();
+        CopyOnWriteHashMap<String, Integer> copy = original.copy();
+
+        original.put("c", 3);
+        original.remove("a");
+
+        assertEquals(2, copy.size());
+        assertEquals(Integer.valueOf(1), copy.get("a"));
+        assertNull(copy.get("c"));
+    }
+
+    @Test
+    public void writesAfterCopyDiverged() {
+        // The original stays marked as shared after the copy has made its own entries. Writes
+        // to either map must still not be visible in the other.
+        CopyOnWriteHashMap<String, Integer> original = makeMap();
+        CopyOnWriteHashMap<String, Integer> copy = original.copy();
+        copy.put("c", 3);
+
+        original.put("d", 4);
+        copy.put("e", 5);
+        original.put("f", 6);
+
+        assertEquals(4, original.size());
+        assertTrue(original.containsKey("d"));
+        assertTrue(original.containsKey("f"));
+        assertFalse(original.containsKey("c"));
+        assertFalse(original.containsKey("e"));
+
+        assertEquals(4, copy.size());
+        assertTrue(copy.containsKey("c"));
+        assertTrue(copy.containsKey("e"));
+        assertFalse(copy.containsKey("d"));
+        assertFalse(copy.containsKey("f"));
+    }
+
+    @Test
+    public void multipleCopies() {
+        CopyOnWriteHashMap<String, Integer> original = makeMap();
+        CopyOnWriteHashMap<String, Integer> copy1 = original.copy();
+        CopyOnWriteHashMap<String, Integer> copy2 = original.copy();
+        CopyOnWriteHashMap<String, Integer> copyOfCopy = copy1.copy();
+
+        copy1.put("a", 10);
+        copy2.put("a", 20);
+
+        assertEquals(Integer.valueOf(1), original.get("a"));
+        assertEquals(Integer.valueOf(10), copy1.get("a"));
+        assertEquals(Integer.valueOf(20), copy2.get("a"));
+        assertEquals(Integer.valueOf(1), copyOfCopy.get("a"));
+        assertTrue(original.sharesEntriesWith(copyOfCopy));
+    }
+
+    @Test
+    public void clearAndPutAllDoNotLeak() {
+        CopyOnWriteHashMap<String, Integer> original = makeMap();
+        CopyOnWriteHashMap<String, Integer> cleared = original.copy();
+        CopyOnWriteHashMap<String, Integer> extended = original.copy();
+
+        cleared.clear();
+        extended.putAll(Collections.singletonMap("c", 3));
+
+        assertTrue(cleared.isEmpty());
+        assertEquals(3, extended.size());
+        assertEquals(2, original.size());
+        assertFalse(original.containsKey("c"));
+    }
+
+    @Test
+    public void putAllIntoEmptyMapSharesEntries() {
+        CopyOnWriteHashMap<String, Integer> original = makeMap();
+        CopyOnWriteHashMap<String, Integer> target = new CopyOnWriteHashMap<>();
+
+        target.putAll(original);
+        assertTrue(original.sharesEntriesWith(target));
+        assertEquals(original, target);
+
+        target.put("c", 3);
+        original.remove("a");
+        assertEquals(3, target.size());
+        assertEquals(Integer.valueOf(1), target.get("a"));
+        assertEquals(1, original.size());
+        assertFalse(original.containsKey("c"));
+    }
+
+    @Test
+    public void removeOfAbsentKeyKeepsSharing() {
+        CopyOnWriteHashMap<String, Integer> original = makeMap();
+        CopyOnWriteHashMap<String, Integer> copy = original.copy();
+
+        assertNull(copy.remove("z"));
+        assertTrue(original.sharesEntriesWith(copy));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void viewsAreUnmodifiable() {
+        CopyOnWriteHashMap<String, Integer> original = makeMap();
+        CopyOnWriteHashMap<String, Integer> copy = original.copy();
+        copy.keySet().remove("a");
+    }
+}
@@ -0,0 +1,127 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.sun.source.util.TreePath;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import org.checkerframework.common.basetype.BaseTypeChecker;
+import org.checkerframework.common.basetype.BaseTypeVisitor;
+import org.checkerframework.framework.qual.Unqualified;
+import org.checkerframework.framework.type.AnnotatedTypeFactory;
+import org.checkerframework.framework.type.AnnotatedTypeMirror;
+import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedDeclaredType;
+import org.checkerframework.framework.type.TypeHierarchy;
+import org.checkerframework.javacutil.AnnotationUtils;
+import org.junit.Test;
+import testlib.util.FlowTestAnnotatedTypeFactory;
+import testlib.util.Odd;
+
+/**
+ * Tests that the cache of subtype checks in {@link
+ * org.checkerframework.framework.type.DefaultTypeHierarchy} is not affected by changes to the types
+ * after a check.
+ */
+public class SubtypeCacheTest {
+
+    /** Records the results of subtype checks made after the type factory has been created. */
+    public static class SubtypeCacheChecker extends BaseTypeChecker {
+
+        /** The results of the subtype checks, in order. */
+        final List<Boolean> results = new ArrayList<>();
+
+        @Override
+        protected BaseTypeVisitor<?> createSourceVisitor() {
+            return new BaseTypeVisitor<FlowTestAnnotatedTypeFactory>(this) {
+                @Override
+                protected FlowTestAnnotatedTypeFactory createTypeFactory() {
+                    return new FlowTestAnnotatedTypeFactory(checker);
+                }
+            };
+        }
+
+        @Override
+        public void typeProcess(TypeElement element, TreePath tree) {
+            AnnotatedTypeFactory factory = getTypeFactory();
+            TypeHierarchy hierarchy = factory.getTypeHierarchy();
+            AnnotationMirror odd = AnnotationUtils.fromClass(factory.getElementUtils(), Odd.class);
+            AnnotationMirror unqualified =
+                    AnnotationUtils.fromClass(factory.getElementUtils(), Unqualified.class);
+            TypeMirror stringType =
+                    factory.getElementUtils().getTypeElement("java.lang.String").asType();
+            TypeMirror listType =
+                    factory.getProcessingEnv()
+                            .getTypeUtils()
+                            .getDeclaredType(
+                                    factory.getElementUtils().getTypeElement("java.util.List"),
+                                    stringType);
+
+            AnnotatedTypeMirror sub = AnnotatedTypeMirror.createType(stringType, factory, false);
+            sub.addAnnotation(unqualified);
+            AnnotatedTypeMirror sup = AnnotatedTypeMirror.createType(stringType, factory, false);
+            sup.addAnnotation(odd);
+            results.add(hierarchy.isSubtype(sub, sup));
+            sub.replaceAnnotation(odd);
+            results.add(hierarchy.isSubtype(sub, sup));
+            sup.replaceAnnotation(unqualified);
+            sub.replaceAnnotation(unqualified);
+            results.add(hierarchy.isSubtype(sup, sub));
+            sub.replaceAnnotation(odd);
+            results.add(hierarchy.isSubtype(sup, sub));
+
+            // Changes to type arguments, which are compared invariantly.
+            AnnotatedDeclaredType subList =
+                    (AnnotatedDeclaredType) AnnotatedTypeMirror.createType(listType, factory, false);
+            subList.addAnnotation(unqualified);
+            subList.getTypeArguments().get(0).addAnnotation(odd);
+            AnnotatedDeclaredType supList =
+                    (AnnotatedDeclaredType) AnnotatedTypeMirror.createType(listType, factory, false);
+            supList.addAnnotation(unqualified);
+            supList.getTypeArguments().get(0).addAnnotation(odd);
+            results.add(hierarchy.isSubtype(subList, supList));
+            subList.getTypeArguments().get(0).replaceAnnotation(unqualified);
+            results.add(hierarchy.isSubtype(subList, supList));
+            subList.getTypeArguments().get(0).replaceAnnotation(odd);
+            results.add(hierarchy.isSubtype(subList, supList));
+        }
+    }
+
+    @Test
+    public void mutationAfterCachedCheck() {
+        SubtypeCacheChecker checker = new SubtypeCacheChecker();
+        JavaFileObject source =
+                new SimpleJavaFileObject(
+                        URI.create("string:///SubtypeCache.java"), JavaFileObject.Kind.SOURCE) {
+                    @Override
+                    public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                        return "class SubtypeCache {}";
+                    }
+                };
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        JavaCompiler.CompilationTask task =
+                compiler.getTask(
+                        null,
+                        null,
+                        null,
+                        Arrays.asList(
+                                "-proc:only", "-classpath", System.getProperty("java.class.path")),
+                        null,
+                        Collections.singletonList(source));
+        task.setProcessors(Collections.singletonList(checker));
+        assertTrue(task.call());
+
+        assertEquals(
+                Arrays.asList(false, true, true, false, true, false, true), checker.results);
+    }
+}
@@ -0,0 +1,95 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.sun.source.tree.MethodTree;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import org.checkerframework.common.basetype.BaseTypeChecker;
+import org.checkerframework.common.basetype.BaseTypeVisitor;
+import org.checkerframework.framework.source.SuppressWarningsKeys;
+import org.junit.Test;
+import testlib.util.FlowTestAnnotatedTypeFactory;
+
+/**
+ * Tests that {@link BaseTypeVisitor} does not visit methods in which all warnings of the checker
+ * are suppressed, and that it still visits methods in which only some warnings are suppressed.
+ */
+public class SuppressedMethodsTest {
+
+    /** Records the names of the methods that its visitor visits. */
+    @SuppressWarningsKeys("visits")
+    public static class VisitRecordingChecker extends BaseTypeChecker {
+
+        /** The names of the visited methods, in order. */
+        final List<String> visitedMethods = new ArrayList<>();
+
+        @Override
+        protected BaseTypeVisitor<?> createSourceVisitor() {
+            return new BaseTypeVisitor<FlowTestAnnotatedTypeFactory>(this) {
+                @Override
+                protected FlowTestAnnotatedTypeFactory createTypeFactory() {
+                    return new FlowTestAnnotatedTypeFactory(checker);
+                }
+
+                @Override
+                public Void visitMethod(MethodTree node, Void p) {
+                    visitedMethods.add(node.getName().toString());
+                    return super.visitMethod(node, p);
+                }
+            };
+        }
+    }
+
+    @Test
+    public void suppressedMethodsAreNotVisited() {
+        VisitRecordingChecker checker = new VisitRecordingChecker();
+        JavaFileObject source =
+                new SimpleJavaFileObject(
+                        URI.create("string:///SuppressedMethods.java"),
+                        JavaFileObject.Kind.SOURCE) {
+                    @Override
+                    public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                        return "class SuppressedMethods {\n"
+                                + "    @SuppressWarnings(\"visits\")\n"
+                                + "    void suppressed() {}\n"
+                                + "    @SuppressWarnings(\"all\")\n"
+                                + "    void suppressedByAll() {}\n"
+                                + "    @SuppressWarnings(\"visits:assignment.type.incompatible\")\n"
+                                + "    void partlySuppressed() {}\n"
+                                + "    @SuppressWarnings(\"unchecked\")\n"
+                                + "    void otherChecker() {}\n"
+                                + "    void unsuppressed() {}\n"
+                                + "    @SuppressWarnings(\"visits\")\n"
+                                + "    static class Suppressed {\n"
+                                + "        void inSuppressedClass() {}\n"
+                                + "    }\n"
+                                + "}\n";
+                    }
+                };
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        JavaCompiler.CompilationTask task =
+                compiler.getTask(
+                        null,
+                        null,
+                        null,
+                        Arrays.asList(
+                                "-proc:only", "-classpath", System.getProperty("java.class.path")),
+                        null,
+                        Collections.singletonList(source));
+        task.setProcessors(Collections.singletonList(checker));
+        assertTrue(task.call());
+
+        assertEquals(
+                Arrays.asList("<init>", "partlySuppressed", "otherChecker", "unsuppressed"),
+                checker.visitedMethods);
+    }
+}
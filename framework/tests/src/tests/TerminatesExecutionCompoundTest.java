@@ -0,0 +1,24 @@
+package tests;
+
+import java.io.File;
+import java.util.List;
+import org.checkerframework.framework.test.CheckerFrameworkPerDirectoryTest;
+import org.junit.runners.Parameterized.Parameters;
+import testlib.compound.TerminatesExecutionChecker;
+
+/** Tests that checkers that disagree on {@code TerminatesExecution} do not share a CFG. */
+public class TerminatesExecutionCompoundTest extends CheckerFrameworkPerDirectoryTest {
+
+    public TerminatesExecutionCompoundTest(List<File> testFiles) {
+        super(
+                testFiles,
+                TerminatesExecutionChecker.class,
+                "compound-checker-terminates",
+                "-Anomsgtext");
+    }
+
+    @Parameters
+    public static String[] getTestDirs() {
+        return new String[] {"compound-checker-terminates"};
+    }
+}
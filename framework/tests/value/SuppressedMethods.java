@@ -0,0 +1,38 @@
+import org.checkerframework.common.value.qual.IntVal;
+
+class SuppressedMethods {
+    @SuppressWarnings("value")
+    void suppressed() {
+        @IntVal(1) int x = 2;
+    }
+
+    @SuppressWarnings("all")
+    void suppressedAll() {
+        @IntVal(1) int x = 2;
+    }
+
+    @SuppressWarnings("value:argument.type.incompatible")
+    void suppressedOtherKey() {
+        //:: error: (assignment.type.incompatible)
+        @IntVal(1) int x = 2;
+    }
+
+    void sibling() {
+        //:: error: (assignment.type.incompatible)
+        @IntVal(1) int x = 2;
+    }
+
+    @SuppressWarnings("value")
+    class Suppressed {
+        void method() {
+            @IntVal(1) int x = 2;
+        }
+    }
+
+    class NotSuppressed {
+        void method() {
+            //:: error: (assignment.type.incompatible)
+            @IntVal(1) int x = 2;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+import org.checkerframework.common.value.qual.*;
+
+// Widening must only apply at loop heads, and only to values that are still growing after a few
+// iterations of a loop.
+class Widening {
+
+    void afterLoop(boolean flag) {
+        int a = 0;
+        int b = 0;
+        int c = 0;
+        int r = 0;
+        // Each iteration of the loop propagates the value 1 one variable further.
+        while (flag) {
+            c = b;
+            b = a;
+            a = 1;
+            if (flag) {
+                r = 1;
+            } else {
+                r = 2;
+            }
+        }
+        @IntVal({0, 1, 2}) int x = r;
+        @IntVal({0, 1}) int y = c;
+        //:: error: (assignment.type.incompatible)
+        @IntVal({0, 1}) int z = r;
+    }
+
+    void counter(boolean flag) {
+        int i = 0;
+        // Without widening, i would converge to @IntVal({0, 1, 2, 3, 4}) after five iterations.
+        while (flag) {
+            i = (i + 1) % 5;
+        }
+        //:: error: (assignment.type.incompatible)
+        @IntVal({0, 1, 2, 3, 4}) int x = i;
+        @UnknownVal int y = i;
+    }
+
+    void nestedLoops(boolean outer, boolean inner) {
+        int a = 0;
+        int b = 0;
+        int c = 0;
+        int z = 0;
+        // The inner loop converges anew in each of the first iterations of the outer loop.
+        while (outer) {
+            while (inner) {
+                c = b;
+                b = a;
+            }
+            if (inner) {
+                a = z;
+            } else {
+                a = 1;
+            }
+            z = 2;
+        }
+        @IntVal({0, 1, 2}) int x = c;
+        //:: error: (assignment.type.incompatible)
+        @IntVal({0, 1}) int y = c;
+    }
+}
@@ -0,0 +1,18 @@
+import testlib.wholeprograminference.qual.*;
+
+public class SuppressWarningsTest {
+
+    // The call in this method is the only use of expectsSibling1NoSignature.
+    // Whole-program inference must still see it, although all warnings in the
+    // method are suppressed.
+    @SuppressWarnings("wholeprograminferencetest")
+    void test() {
+        @Sibling1 int sib = (@Sibling1 int) 0;
+        expectsSibling1NoSignature(sib);
+    }
+
+    void expectsSibling1NoSignature(int t) {
+        //:: error: (assignment.type.incompatible)
+        @Sibling1 int sib = t;
+    }
+}
@@ -16,6 +16,7 @@ import com.sun.tools.javac.model.JavacElements;
 import java.lang.annotation.Annotation;
 import java.lang.annotation.Inherited;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -47,7 +48,9 @@ public class AnnotationUtils {
     // TODO: hack to clear out static state.
     public static void clear() {
         annotationsFromNames.clear();
+        canonicalAnnotations.clear();
         annotationMirrorNames.clear();
+        annotationMirrorValues.clear();
         annotationMirrorSimpleNames.clear();
         annotationClassNames.clear();
     }
@@ -62,6 +65,13 @@ public class AnnotationUtils {
 
     private static final int ANNOTATION_CACHE_SIZE = 500;
 
+    /**
+     * Canonical instances of annotations created by the Checker Framework, keyed by their
+     * structure. See {@link #canonicalAnnotation(AnnotationMirror)}.
+     */
+    private static final Map<List<Object>, AnnotationMirror> canonicalAnnotations =
+            CollectionUtils.createLRUCache(ANNOTATION_CACHE_SIZE);
+
     /**
      * Cache names of AnnotationMirrors for faster access. Values in the map are interned Strings,
      * so they can be compared with ==.
@@ -76,6 +86,13 @@ public class AnnotationUtils {
     private static final Map<AnnotationMirror, /*@Interned*/ String> annotationMirrorSimpleNames =
             CollectionUtils.createLRUCache(ANNOTATION_CACHE_SIZE);
 
+    /**
+     * Cache the element values, including defaults, of AnnotationMirrors in a canonical string form
+     * for faster comparison. See {@link #elementValuesString(AnnotationMirror)}.
+     */
+    private static final Map<AnnotationMirror, String> annotationMirrorValues =
+            CollectionUtils.createLRUCache(ANNOTATION_CACHE_SIZE);
+
     /**
      * Cache names of classes representing AnnotationMirrors for faster access. Values in the map
      * are interned Strings, so they can be compared with ==.
@@ -92,8 +109,9 @@ public class AnnotationUtils {
      * @return an {@link AnnotationMirror} of type {@code} name
      */
     public static AnnotationMirror fromName(Elements elements, CharSequence name) {
-        if (annotationsFromNames.containsKey(name)) {
-            return annotationsFromNames.get(name);
+        AnnotationMirror cached = annotationsFromNames.get(name);
+        if (cached != null) {
+            return cached;
         }
         final DeclaredType annoType = typeFromName(elements, name);
         if (annoType == null) {
@@ -123,10 +141,69 @@ public class AnnotationUtils {
                         return toString;
                     }
                 };
+        result = canonicalAnnotation(result);
         annotationsFromNames.put(name, result);
         return result;
     }
 
+    /**
+     * Returns the canonical instance of an annotation created by the Checker Framework. If an
+     * annotation with the same type and the same explicitly set element values was previously
+     * registered, that instance is returned; otherwise {@code anno} is registered and returned.
+     * Canonical instances allow {@link #areSame(AnnotationMirror, AnnotationMirror)} to succeed
+     * with a reference comparison in the common case.
+     *
+     * <p>Annotations read from source or bytecode should not be passed to this method: they are
+     * owned by the compiler and may carry additional information, such as their position.
+     *
+     * @param anno an annotation created by the Checker Framework
+     * @return the canonical instance of {@code anno}
+     */
+    public static AnnotationMirror canonicalAnnotation(AnnotationMirror anno) {
+        List<Object> key = canonicalKey(anno);
+        AnnotationMirror canonical = canonicalAnnotations.get(key);
+        if (canonical != null) {
+            return canonical;
+        }
+        canonicalAnnotations.put(key, anno);
+        return anno;
+    }
+
+    /**
+     * Returns a key that is equal for two annotations iff they have the same annotation type
+     * element and the same explicitly set element values. The key is built from the values
+     * themselves rather than from their string representation, which need not be unambiguous.
+     * Annotations created for a different compilation have a different type element and
+     * therefore a different key.
+     */
+    private static List<Object> canonicalKey(AnnotationMirror anno) {
+        Map<String, Object> values = new TreeMap<String, Object>();
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry :
+                anno.getElementValues().entrySet()) {
+            values.put(
+                    entry.getKey().getSimpleName().toString(),
+                    canonicalValue(entry.getValue().getValue()));
+        }
+        return Arrays.<Object>asList(anno.getAnnotationType().asElement(), values);
+    }
+
+    /** Converts the value of an {@link AnnotationValue} into a part of a canonical key. */
+    private static Object canonicalValue(Object value) {
+        if (value instanceof List<?>) {
+            List<Object> result = new ArrayList<Object>();
+            for (Object elt : (List<?>) value) {
+                result.add(canonicalValue(((AnnotationValue) elt).getValue()));
+            }
+            return result;
+        } else if (value instanceof AnnotationMirror) {
+            return canonicalKey((AnnotationMirror) value);
+        } else {
+            // Boxed primitives and Strings compare by value; enum constants (VariableElement)
+            // and class literals (TypeMirror) are owned by the compiler.
+            return value;
+        }
+    }
+
     /**
      * Creates an {@link AnnotationMirror} given by a particular annotation class.
      *
@@ -199,21 +276,45 @@ public class AnnotationUtils {
      */
     public static boolean areSame(
             /*@Nullable*/ AnnotationMirror a1, /*@Nullable*/ AnnotationMirror a2) {
+        if (a1 == a2) {
+            // Canonical instances, or both null.
+            return true;
+        }
         if (a1 != null && a2 != null) {
             if (annotationName(a1) != annotationName(a2)) {
                 return false;
             }
 
-            Map<? extends ExecutableElement, ? extends AnnotationValue> elval1 =
-                    getElementValuesWithDefaults(a1);
-            Map<? extends ExecutableElement, ? extends AnnotationValue> elval2 =
-                    getElementValuesWithDefaults(a2);
+            if (a1.getElementValues().isEmpty() && a2.getElementValues().isEmpty()) {
+                // Annotations of the same type that only use default values.
+                return true;
+            }
 
-            return elval1.toString().equals(elval2.toString());
+            return elementValuesString(a1).equals(elementValuesString(a2));
         }
 
-        // only true, iff both are null
-        return a1 == a2;
+        return false;
+    }
+
+    /**
+     * Returns a string representation of the element values, including defaults, of {@code anno}.
+     * The representation is independent of the order in which the values were set, so two
+     * annotations of the same type have the same representation iff they have the same values.
+     */
+    private static String elementValuesString(AnnotationMirror anno) {
+        String result = annotationMirrorValues.get(anno);
+        if (result != null) {
+            return result;
+        }
+
+        Map<String, String> sorted = new TreeMap<String, String>();
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry :
+                getElementValuesWithDefaults(anno).entrySet()) {
+            sorted.put(entry.getKey().getSimpleName().toString(), entry.getValue().toString());
+        }
+        result = sorted.toString();
+        annotationMirrorValues.put(anno, result);
+        return result;
     }
 
     /**
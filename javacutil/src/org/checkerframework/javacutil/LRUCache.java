@@ -0,0 +1,94 @@
+package org.checkerframework.javacutil;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A map with a bounded number of entries that evicts the least recently used entry when it grows
+ * beyond its maximum size. Both {@link #get} and {@link #put} count as a use of an entry.
+ *
+ * <p>The cache counts hits, misses and evictions, so that its effectiveness can be reported, for
+ * example by the {@code -AresourceStats} option. A call to {@link #get} that returns {@code null}
+ * counts as a miss. Like {@link LinkedHashMap}, the cache is not thread-safe.
+ */
+public class LRUCache<K, V> extends LinkedHashMap<K, V> {
+
+    private static final long serialVersionUID = 5261489276168775084L;
+
+    /** The maximum number of entries in this cache. */
+    private final int maxSize;
+
+    /** The number of calls to {@link #get} that found a value. */
+    private long hits = 0;
+
+    /** The number of calls to {@link #get} that did not find a value. */
+    private long misses = 0;
+
+    /** The number of entries that were removed because the cache was full. */
+    private long evictions = 0;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param maxSize the maximum number of entries in the cache
+     */
+    public LRUCache(int maxSize) {
+        super(16, 0.75f, true);
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public V get(Object key) {
+        V value = super.get(key);
+        if (value == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return value;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, V> entry) {
+        if (size() > maxSize) {
+            evictions++;
+            return true;
+        }
+        return false;
+    }
+
+    /** @return the maximum number of entries in this cache */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /** @return the number of calls to {@link #get} that found a value */
+    public long getHits() {
+        return hits;
+    }
+
+    /** @return the number of calls to {@link #get} that did not find a value */
+    public long getMisses() {
+        return misses;
+    }
+
+    /** @return the number of entries that were removed because the cache was full */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /** @return a one-line summary of the size and the counters of this cache */
+    public String getStatistics() {
+        return "size "
+                + size()
+                + " of "
+                + maxSize
+                + ", "
+                + hits
+                + " hits, "
+                + misses
+                + " misses, "
+                + evictions
+                + " evictions";
+    }
+}